@@ -128,7 +128,7 @@ public class DrawBoard {
 //                }
 
 
-                currentPos = new ChessPosition(8 - row, col + 1);
+                currentPos = ChessPosition.of(8 - row, col + 1);
 
 
 
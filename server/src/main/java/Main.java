@@ -1,14 +1,46 @@
 import chess.*;
+import chess.engine.OpeningBookBuilder;
 import dataaccess.*;
 import server.Server;
 import service.GameService;
+import service.OpeningBookService;
 import service.UserService;
 import service.AuthService;
+import service.BulkAnalysisService;
 
+import java.nio.file.Path;
 
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Build the opening book from the stored games instead of starting the server
+        if (args.length == 2 && args[0].equals("--build-book")) {
+            int games = new OpeningBookService(new SQLGameDAO())
+                    .buildBook(Path.of(args[1]), OpeningBookBuilder.DEFAULT_MAX_PLY);
+            System.out.println("Opening book written from " + games + " games: " + args[1]);
+            return;
+        }
+
+        // Analyze every stored game, resuming the named job if it has run before
+        if (args.length >= 2 && args[0].equals("--analyze-games")) {
+            int depth = args.length > 2 ? Integer.parseInt(args[2]) : BulkAnalysisService.DEFAULT_DEPTH;
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : BulkAnalysisService.DEFAULT_THREADS;
+            BulkAnalysisService bulkAnalysisService =
+                    new BulkAnalysisService(new SQLGameDAO(), new SQLAnalysisDAO(), threads);
+            BulkAnalysisService.Job job = bulkAnalysisService.start(args[1], depth);
+            while (!job.isDone()) {
+                Thread.sleep(5000);
+                System.out.println("Analyzed " + job.getGamesAnalyzed() + " games (" + job.getGamesSkipped()
+                        + " skipped, " + job.getPositions() + " positions); checkpoint at game "
+                        + job.getCheckpoint().lastGameID());
+            }
+            job.await();
+            bulkAnalysisService.shutdown();
+            System.out.println("Analysis job " + args[1] + " finished: " + job.getCheckpoint().gamesAnalyzed()
+                    + " games analyzed in total");
+            return;
+        }
+
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
         boolean useMySQL = true;  // Change this to false for in-memory storage
@@ -0,0 +1,14 @@
+package dataaccess;
+
+import model.AnalysisCheckpoint;
+import model.MoveAnalysis;
+
+import java.util.List;
+
+public interface AnalysisDAO {
+    void saveGameAnalysis(int gameID, List<MoveAnalysis> moves) throws DataAccessException; // Replaces any earlier analysis of the game
+    List<MoveAnalysis> getGameAnalysis(int gameID) throws DataAccessException; // In ply order; empty if never analyzed
+    AnalysisCheckpoint getCheckpoint(String jobName) throws DataAccessException; // Null if the job has never run
+    void saveCheckpoint(AnalysisCheckpoint checkpoint) throws DataAccessException;
+    void clear() throws DataAccessException;
+}
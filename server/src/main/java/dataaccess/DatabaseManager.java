@@ -81,6 +81,30 @@ public class DatabaseManager {
                     ")";
             stmt.executeUpdate(createGames);
 
+            // MoveAnalyses table: one row per move of an analyzed game
+            String createMoveAnalyses = "CREATE TABLE IF NOT EXISTS MoveAnalyses (" +
+                    "gameID INT NOT NULL," +
+                    "ply INT NOT NULL," +
+                    "move VARCHAR(5) NOT NULL," +
+                    "bestMove VARCHAR(5) NOT NULL," +
+                    "bestScore INT NOT NULL," +
+                    "playedScore INT NOT NULL," +
+                    "accuracy DOUBLE NOT NULL," +
+                    "depth INT NOT NULL," +
+                    "PRIMARY KEY (gameID, ply)," +
+                    "FOREIGN KEY (gameID) REFERENCES Games(gameID) ON DELETE CASCADE" +
+                    ")";
+            stmt.executeUpdate(createMoveAnalyses);
+
+            // AnalysisJobs table: where each bulk analysis job has got to
+            String createAnalysisJobs = "CREATE TABLE IF NOT EXISTS AnalysisJobs (" +
+                    "jobName VARCHAR(255) PRIMARY KEY," +
+                    "depth INT NOT NULL," +
+                    "lastGameID INT NOT NULL," +
+                    "gamesAnalyzed INT NOT NULL" +
+                    ")";
+            stmt.executeUpdate(createAnalysisJobs);
+
         } catch (SQLException e) {
             throw new DataAccessException("Error initializing tables: " + e.getMessage());
         }
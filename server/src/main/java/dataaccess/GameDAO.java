@@ -7,6 +7,7 @@ public interface GameDAO {
     int createGame(GameData game) throws DataAccessException; // Return the new game ID
     GameData getGame(int gameID) throws DataAccessException;
     List<GameData> listGames() throws DataAccessException;
+    List<GameData> listGamesAfter(int gameID, int limit) throws DataAccessException; // The next page of games in gameID order
     void updateGame(GameData game) throws DataAccessException;
     void clear() throws DataAccessException;
 }
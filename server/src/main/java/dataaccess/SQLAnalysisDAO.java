@@ -0,0 +1,142 @@
+package dataaccess;
+
+import model.AnalysisCheckpoint;
+import model.MoveAnalysis;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SQLAnalysisDAO implements AnalysisDAO {
+
+    @Override
+    public void saveGameAnalysis(int gameID, List<MoveAnalysis> moves) throws DataAccessException {
+        String deleteSql = "DELETE FROM MoveAnalyses WHERE gameID = ?";
+        String insertSql = "INSERT INTO MoveAnalyses (gameID, ply, move, bestMove, bestScore, playedScore, accuracy, depth) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            // One transaction, so a game is never left half analyzed
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+
+                delete.setInt(1, gameID);
+                delete.executeUpdate();
+
+                for (MoveAnalysis move : moves) {
+                    if (move.gameID() != gameID) {
+                        throw new DataAccessException("Error: Analysis belongs to game " + move.gameID());
+                    }
+                    insert.setInt(1, gameID);
+                    insert.setInt(2, move.ply());
+                    insert.setString(3, move.move());
+                    insert.setString(4, move.bestMove());
+                    insert.setInt(5, move.bestScore());
+                    insert.setInt(6, move.playedScore());
+                    insert.setDouble(7, move.accuracy());
+                    insert.setInt(8, move.depth());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                conn.commit();
+            } catch (SQLException | DataAccessException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving analysis: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<MoveAnalysis> getGameAnalysis(int gameID) throws DataAccessException {
+        List<MoveAnalysis> moves = new ArrayList<>();
+        String sql = "SELECT * FROM MoveAnalyses WHERE gameID = ? ORDER BY ply";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    moves.add(new MoveAnalysis(
+                            rs.getInt("gameID"),
+                            rs.getInt("ply"),
+                            rs.getString("move"),
+                            rs.getString("bestMove"),
+                            rs.getInt("bestScore"),
+                            rs.getInt("playedScore"),
+                            rs.getDouble("accuracy"),
+                            rs.getInt("depth")
+                    ));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving analysis: " + e.getMessage());
+        }
+        return moves;
+    }
+
+    @Override
+    public AnalysisCheckpoint getCheckpoint(String jobName) throws DataAccessException {
+        String sql = "SELECT * FROM AnalysisJobs WHERE jobName = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, jobName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new AnalysisCheckpoint(
+                            rs.getString("jobName"),
+                            rs.getInt("depth"),
+                            rs.getInt("lastGameID"),
+                            rs.getInt("gamesAnalyzed")
+                    );
+                }
+                return null;
+            }
+
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving checkpoint: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void saveCheckpoint(AnalysisCheckpoint checkpoint) throws DataAccessException {
+        if (checkpoint == null || checkpoint.jobName() == null) {
+            throw new DataAccessException("Error: Invalid checkpoint");
+        }
+
+        String sql = "INSERT INTO AnalysisJobs (jobName, depth, lastGameID, gamesAnalyzed) VALUES (?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE depth = VALUES(depth), lastGameID = VALUES(lastGameID), " +
+                "gamesAnalyzed = VALUES(gamesAnalyzed)";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, checkpoint.jobName());
+            stmt.setInt(2, checkpoint.depth());
+            stmt.setInt(3, checkpoint.lastGameID());
+            stmt.setInt(4, checkpoint.gamesAnalyzed());
+            stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving checkpoint: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement analyses = conn.prepareStatement("DELETE FROM MoveAnalyses");
+             PreparedStatement jobs = conn.prepareStatement("DELETE FROM AnalysisJobs")) {
+            analyses.executeUpdate();
+            jobs.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error clearing analyses: " + e.getMessage());
+        }
+    }
+}
@@ -125,6 +125,36 @@ public class SQLGameDAO implements GameDAO {
         return games;
     }
 
+    @Override
+    public List<GameData> listGamesAfter(int gameID, int limit) throws DataAccessException {
+        List<GameData> games = new ArrayList<>();
+        String sql = "SELECT * FROM Games WHERE gameID > ? ORDER BY gameID LIMIT ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, gameID);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ChessGame chessGame = GSON.fromJson(rs.getString("gameState"), ChessGame.class);
+                    games.add(new GameData(
+                            rs.getInt("gameID"),
+                            rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"),
+                            rs.getString("gameName"),
+                            chessGame,
+                            rs.getBoolean("gameOver")
+                    ));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving games: " + e.getMessage());
+        }
+        return games;
+    }
+
     @Override
     public void clear() throws DataAccessException {
         String sql = "DELETE FROM Games";
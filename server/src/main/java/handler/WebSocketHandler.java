@@ -1,12 +1,17 @@
 package handler;
 
 import chess.*;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseResult;
 import com.google.gson.Gson;
 import dataaccess.*;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import service.AnalysisService;
 import websocket.commands.UserGameCommand;
 import websocket.messages.*;
 
@@ -14,11 +19,24 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 @WebSocket
 public class WebSocketHandler {
     private final Gson gson = new Gson();
     private final HashMap<Integer, ArrayList<Session>> gameSessions = new HashMap<>();
+    private final AnalysisService analysisService;
+    // Solved endings, to end decided games early; null if none are loaded
+    private final Tablebase tablebase;
+
+    public WebSocketHandler() {
+        this(new AnalysisService(), null);
+    }
+
+    public WebSocketHandler(AnalysisService analysisService, Tablebase tablebase) {
+        this.analysisService = analysisService;
+        this.tablebase = tablebase;
+    }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException {
@@ -30,6 +48,7 @@ public class WebSocketHandler {
             case MAKE_MOVE -> handleMove(command, session);
             case LEAVE -> handleLeave(command, session);
             case RESIGN -> handleResign(command, session);
+            case ANALYZE -> handleAnalyze(command, session);
         }
     }
 
@@ -64,7 +83,7 @@ public class WebSocketHandler {
 
             // Send game state to the joining client
             ServerMessage loadGame = new LoadGameMessage(gameData.game());
-            session.getRemote().sendString(gson.toJson(loadGame));
+            send(session, loadGame);
 
             // Notify all other clients in this game
             String notificationText = gameData.gameName() + " - " + username + " joined the game as " + playerColor;
@@ -75,13 +94,13 @@ public class WebSocketHandler {
 
             for (Session s : gameSessions.get(gameID)) {
                 if (s.isOpen() && !s.equals(session)) {
-                    s.getRemote().sendString(gson.toJson(notify));
+                    send(s, notify);
                 }
             }
 
         } catch (DataAccessException e) {
             ServerMessage error = new ErrorMessage("Error: " + e.getMessage());
-            session.getRemote().sendString(gson.toJson(error));
+            send(session, error);
         }
     }
 
@@ -139,7 +158,7 @@ public class WebSocketHandler {
             if (sessions != null) {
                 for (Session s : sessions) {
                     if (s.isOpen()) {
-                        s.getRemote().sendString(gson.toJson(notify));
+                        send(s, notify);
                     }
                 }
             }
@@ -164,15 +183,13 @@ public class WebSocketHandler {
             // Observer can't resign
             if (!auth.username().equals(gameData.whiteUsername()) &&
                     !auth.username().equals(gameData.blackUsername())) {
-                session.getRemote().sendString(gson.toJson(
-                        new ErrorMessage("Only players can resign.")));
+                send(session, new ErrorMessage("Only players can resign."));
                 return;
             }
 
             // Game already over
             if (gameData.gameOver()) {
-                session.getRemote().sendString(gson.toJson(
-                        new ErrorMessage("The game is already over.")));
+                send(session, new ErrorMessage("The game is already over."));
                 return;
             }
 
@@ -192,12 +209,100 @@ public class WebSocketHandler {
             ));
 
         } catch (Exception e) {
-            session.getRemote().sendString(gson.toJson(
-                    new ErrorMessage("Server error: " + e.getMessage())));
+            send(session, new ErrorMessage("Server error: " + e.getMessage()));
+            e.printStackTrace();
+        }
+    }
+
+    // Only loads the game here; the search itself runs on the analysis pool and streams results back
+    private void handleAnalyze(UserGameCommand command, Session session) throws IOException {
+        int gameID = command.getGameID();
+        String authToken = command.getAuthToken();
+
+        try {
+            AuthDAO authDAO = new SQLAuthDAO();
+            GameDAO gameDAO = new SQLGameDAO();
+
+            var auth = authDAO.getAuth(authToken);
+            var gameData = gameDAO.getGame(gameID);
+            if (auth == null) {
+                send(session, new ErrorMessage("Error: unauthorized"));
+                return;
+            }
+            if (gameData == null || gameData.game() == null) {
+                send(session, new ErrorMessage("Error: Game not found."));
+                return;
+            }
+
+            // An engine is an outside help, so players may only use it once their game is over
+            boolean isPlayer = auth.username().equals(gameData.whiteUsername()) ||
+                    auth.username().equals(gameData.blackUsername());
+            if (isPlayer && !gameData.gameOver()) {
+                send(session, new ErrorMessage("Players can't analyze a game that is still in progress."));
+                return;
+            }
+
+            SearchLimits limits = AnalysisService.limits(command.getDepth(), command.getTimeMillis());
+
+            analysisService.submit(auth.username(), gameData.game(), limits, new AnalysisService.Listener() {
+                @Override
+                public void onIteration(SearchResult result) {
+                    sendQuietly(session, analysisMessage(result, false));
+                }
+
+                @Override
+                public void onComplete(SearchResult result) {
+                    sendQuietly(session, analysisMessage(result, true));
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    sendQuietly(session, new ErrorMessage("Analysis failed: " + e.getMessage()));
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return !session.isOpen();
+                }
+            });
+
+        } catch (RejectedExecutionException e) {
+            send(session, new ErrorMessage("Error: " + e.getMessage()));
+        } catch (Exception e) {
+            send(session, new ErrorMessage("Server error: " + e.getMessage()));
             e.printStackTrace();
         }
     }
 
+    // Ends a game the tablebase has solved, since the result can no longer change with best play
+    private String adjudicate(ChessGame game, ChessGame.TeamColor toMove) {
+        TablebaseResult solved = tablebase.probe(game.getBoard(), toMove);
+        if (solved == null) {
+            return null;
+        }
+        // The tables ignore the fifty-move rule, so a mate that lands after the clock runs out is no win
+        ChessBoard board = game.getBoard();
+        if (solved.outcome() != TablebaseResult.Outcome.DRAW
+                && solved.pliesToMate() > 100 - board.getHalfmoveClock()) {
+            // A pawn move restarts the clock, so without pawns on the board the mate can never be reached
+            boolean pawns = (board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN)
+                    | board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN)) != 0;
+            return pawns ? null : "Draw! Checkmate cannot be forced before the fifty-move rule.";
+        }
+        int moves = (solved.pliesToMate() + 1) / 2;
+        return switch (solved.outcome()) {
+            case WIN -> "Game over! " + toMove + " has a forced checkmate in " + moves + ".";
+            case LOSS -> "Game over! " + game.getOtherTeamColor(toMove) + " has a forced checkmate in " + moves + ".";
+            case DRAW -> "Draw! Neither side can force checkmate.";
+        };
+    }
+
+    private static AnalysisMessage analysisMessage(SearchResult result, boolean finished) {
+        Integer mateIn = result.isMate() ? result.mateIn() : null;
+        return new AnalysisMessage(result.depth(), result.score(), mateIn, result.nodes(), result.timeMillis(),
+                result.bestMove(), result.principalVariation(), finished);
+    }
+
     private void handleMove(UserGameCommand command, Session session) throws IOException {
         int gameID = command.getGameID();
         ChessMove move = command.getMove();
@@ -212,8 +317,7 @@ public class WebSocketHandler {
             ChessGame game = gameData.game();
 
             if (gameData.gameOver()) {
-                session.getRemote().sendString(gson.toJson(
-                        new ErrorMessage("The game is over. No more moves allowed.")));
+                send(session, new ErrorMessage("The game is over. No more moves allowed."));
                 return;
             }
 
@@ -223,21 +327,18 @@ public class WebSocketHandler {
             } else if (auth.username().equals(gameData.blackUsername())) {
                 playerColor = ChessGame.TeamColor.BLACK;
             } else {
-                session.getRemote().sendString(gson.toJson(
-                        new ErrorMessage("You're not a player in this game.")));
+                send(session, new ErrorMessage("You're not a player in this game."));
                 return;
             }
 
             if (playerColor != game.getTeamTurn()) {
-                session.getRemote().sendString(gson.toJson(
-                        new ErrorMessage("Not your turn.")));
+                send(session, new ErrorMessage("Not your turn."));
                 return;
             }
 
             ChessPiece piece = game.getBoard().getPiece(move.getStartPosition());
             if (piece == null || piece.getTeamColor() != playerColor) {
-                session.getRemote().sendString(gson.toJson(
-                        new ErrorMessage("Invalid move: You can only move your own pieces.")));
+                send(session, new ErrorMessage("Invalid move: You can only move your own pieces."));
                 return;
             }
 
@@ -253,7 +354,7 @@ public class WebSocketHandler {
             ServerMessage boardUpdate = new LoadGameMessage(game);
             for (Session s : gameSessions.get(gameID)) {
                 if (s.isOpen()) {
-                    s.getRemote().sendString(gson.toJson(boardUpdate));
+                    send(s, boardUpdate);
                 }
             }
 
@@ -262,15 +363,30 @@ public class WebSocketHandler {
             ServerMessage notification = new NotificationMessage(moveMessage);
             for (Session s : gameSessions.get(gameID)) {
                 if (s.isOpen() && !s.equals(session)) {
-                    s.getRemote().sendString(gson.toJson(notification));
+                    send(s, notification);
                 }
             }
 
             ChessGame.TeamColor opponent = (playerColor == ChessGame.TeamColor.WHITE)
                     ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
 
-            if (game.isInCheckmate(opponent)) {
-                broadcast(gameID, new NotificationMessage("Checkmate! " + opponent + " has lost."));
+            // One legal move pass covers checkmate, stalemate, draws and check
+            GameStatus status = game.status(opponent);
+            String result = null;
+            if (status.isCheckmate()) {
+                result = "Checkmate! " + opponent + " has lost.";
+            } else if (status.isStalemate()) {
+                result = "Stalemate! " + opponent + " has no legal moves.";
+            } else if (status.isThreefoldRepetition()) {
+                result = "Draw! The same position has occurred three times.";
+            } else if (status.isFiftyMoveRule()) {
+                result = "Draw! Fifty moves have passed without a capture or pawn move.";
+            } else if (tablebase != null) {
+                result = adjudicate(game, opponent);
+            }
+
+            if (result != null) {
+                broadcast(gameID, new NotificationMessage(result));
                 gameDAO.updateGame(new GameData(
                         gameData.gameID(),
                         gameData.whiteUsername(),
@@ -278,29 +394,45 @@ public class WebSocketHandler {
                         gameData.gameName(),
                         game,
                         true ));
-            } else if (game.isInStalemate(opponent)) {
-                broadcast(gameID, new NotificationMessage("Stalemate! " + opponent + " has no legal moves."));
-            } else if (game.isInCheck(opponent)) {
+            } else if (status.inCheck()) {
                 broadcast(gameID, new NotificationMessage(opponent + " is in check."));
             }
 
         } catch (InvalidMoveException e) {
-            session.getRemote().sendString(gson.toJson(
-                    new ErrorMessage("Invalid move: " + e.getMessage())));
+            send(session, new ErrorMessage("Invalid move: " + e.getMessage()));
         } catch (Exception e) {
-            session.getRemote().sendString(gson.toJson(
-                    new ErrorMessage("Server error: " + e.getMessage())));
+            send(session, new ErrorMessage("Server error: " + e.getMessage()));
             e.printStackTrace();
         }
     }
 
 
 
+    // Analysis threads send alongside the Jetty threads, and a session's remote endpoint is not thread-safe
+    private void send(Session session, ServerMessage message) throws IOException {
+        String json = gson.toJson(message);
+        synchronized (session) {
+            session.getRemote().sendString(json);
+        }
+    }
+
+    // For analysis threads, which have no caller to report a closed session to
+    private void sendQuietly(Session session, ServerMessage message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            send(session, message);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     //helper function
     private void broadcast(int gameID, ServerMessage message) throws IOException {
         for (Session s : gameSessions.get(gameID)) {
             if (s.isOpen()) {
-                s.getRemote().sendString(gson.toJson(message));
+                send(s, message);
             }
         }
     }
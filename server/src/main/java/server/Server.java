@@ -1,12 +1,17 @@
 package server;
 
+import chess.tablebase.Tablebase;
 import dataaccess.*;
 import handler.*;
+import service.AnalysisService;
 import service.UserService;
 import service.AuthService;
 import service.GameService;
 import spark.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * The main server class that sets up the application and handles incoming HTTP requests.
  * Uses Spark framework for defining API endpoints.
@@ -15,6 +20,7 @@ public class Server {
     private final UserService userService;
     private final AuthService authService;
     private final GameService gameService;
+    private AnalysisService analysisService;
 
     /**
      * Default constructor that initializes the server with fresh DAOs and services.
@@ -54,7 +60,8 @@ public class Server {
         Spark.port(desiredPort);
 
         // Register WebSocket BEFORE routes!
-        WebSocketHandler webSocketHandler = new WebSocketHandler();
+        analysisService = new AnalysisService();
+        WebSocketHandler webSocketHandler = new WebSocketHandler(analysisService, openTablebase());
         Spark.webSocket("/ws", webSocketHandler);
 
         Spark.staticFiles.location("web");
@@ -77,6 +84,24 @@ public class Server {
 
 
 
+    /**
+     * Opens the endgame tablebase named by the tablebase.dir system property, if any.
+     *
+     * @return The tablebase, or null if none is configured or it cannot be read.
+     */
+    private static Tablebase openTablebase() {
+        String directory = System.getProperty("tablebase.dir");
+        if (directory == null) {
+            return null;
+        }
+        try {
+            return Tablebase.open(Path.of(directory));
+        } catch (IOException e) {
+            System.out.println("Tablebase not loaded: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Retrieves the current port number the server is running on.
      *
@@ -90,6 +115,9 @@ public class Server {
      * Stops the server and ensures graceful shutdown.
      */
     public void stop() {
+        if (analysisService != null) {
+            analysisService.shutdown();
+        }
         Spark.stop();
         Spark.awaitStop();
     }
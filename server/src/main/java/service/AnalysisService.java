@@ -0,0 +1,189 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class that runs engine analysis on a fixed pool of worker threads,
+ * separate from the threads that handle WebSocket commands.
+ * <p>
+ * Both the queue and the number of analyses each user may have queued or
+ * running are capped. A request past either cap is rejected at once instead
+ * of waiting, so analysis load can never hold up move handling. Each worker
+ * keeps its own search and transposition table from one analysis to the next.
+ */
+public class AnalysisService {
+    public static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    public static final int DEFAULT_PER_USER_LIMIT = 1;
+
+    // Limits applied to client requests
+    public static final int MAX_DEPTH = 20;
+    public static final int MAX_TIME_MILLIS = 10_000;
+    public static final int DEFAULT_TIME_MILLIS = 2_000;
+    private static final int TABLE_MEGABYTES = 16;
+
+    /**
+     * Receives the progress of one analysis. Every method is called on the
+     * worker thread running it.
+     */
+    public interface Listener {
+        /**
+         * Called after each completed search iteration.
+         */
+        void onIteration(SearchResult result);
+
+        /**
+         * Called once when the analysis finishes.
+         */
+        void onComplete(SearchResult result);
+
+        /**
+         * Called instead of onComplete if the analysis fails.
+         */
+        void onError(Exception e);
+
+        /**
+         * Checked between iterations; returning true stops the analysis early,
+         * for example once the requester has disconnected.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int perUserLimit;
+    private final ConcurrentHashMap<String, Integer> userCounts = new ConcurrentHashMap<>();
+    private final ThreadLocal<Search> searches =
+            ThreadLocal.withInitial(() -> new Search(new TranspositionTable(TABLE_MEGABYTES)));
+
+    /**
+     * Default constructor using the default pool size and caps.
+     */
+    public AnalysisService() {
+        this(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY, DEFAULT_PER_USER_LIMIT);
+    }
+
+    /**
+     * Constructor for AnalysisService.
+     *
+     * @param threads       The number of analyses that run at once.
+     * @param queueCapacity The number of analyses that may wait for a thread.
+     * @param perUserLimit  The number of analyses one user may have queued or running.
+     */
+    public AnalysisService(int threads, int queueCapacity, int perUserLimit) {
+        this.perUserLimit = perUserLimit;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Turns the limits a client asked for into search limits, within MAX_DEPTH
+     * and MAX_TIME_MILLIS. A search is always bounded by time, even when only
+     * a depth is given.
+     *
+     * @param depth      The requested depth, or null.
+     * @param timeMillis The requested time in milliseconds, or null.
+     * @return The limits to search with.
+     */
+    public static SearchLimits limits(Integer depth, Integer timeMillis) {
+        int boundedDepth = depth == null ? MAX_DEPTH : Math.max(1, Math.min(depth, MAX_DEPTH));
+        int boundedTime;
+        if (timeMillis != null) {
+            boundedTime = Math.max(1, Math.min(timeMillis, MAX_TIME_MILLIS));
+        } else {
+            boundedTime = depth == null ? DEFAULT_TIME_MILLIS : MAX_TIME_MILLIS;
+        }
+        return new SearchLimits(boundedDepth, 0, boundedTime);
+    }
+
+    /**
+     * Queues an analysis of a game's current position.
+     *
+     * @param username The user asking, whose concurrent analyses are capped.
+     * @param game     The game to analyze; it is not modified.
+     * @param limits   When to stop searching.
+     * @param listener Receives the results.
+     * @throws RejectedExecutionException If the user is at their cap or the queue is full.
+     */
+    public void submit(String username, ChessGame game, SearchLimits limits, Listener listener) {
+        if (!reserve(username)) {
+            throw new RejectedExecutionException("You already have " + perUserLimit + " analysis in progress.");
+        }
+        try {
+            executor.execute(() -> analyze(username, game, limits, listener));
+        } catch (RejectedExecutionException e) {
+            release(username);
+            throw new RejectedExecutionException("The server is busy with other analysis. Try again later.", e);
+        }
+    }
+
+    /**
+     * Stops accepting analyses. Running analyses finish within their time limit.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void analyze(String username, ChessGame game, SearchLimits limits, Listener listener) {
+        try {
+            if (listener.isCancelled()) {
+                return;
+            }
+            Search search = searches.get();
+            SearchResult result = search.search(game, limits, iteration -> {
+                if (listener.isCancelled()) {
+                    search.stop();
+                } else {
+                    listener.onIteration(iteration);
+                }
+            });
+            listener.onComplete(result);
+        } catch (RuntimeException e) {
+            listener.onError(e);
+        } finally {
+            release(username);
+        }
+    }
+
+    /**
+     * Counts one more analysis for the user unless they are at the cap.
+     */
+    private boolean reserve(String username) {
+        boolean[] reserved = {false};
+        userCounts.compute(username, (user, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= perUserLimit) {
+                return count;
+            }
+            reserved[0] = true;
+            return current + 1;
+        });
+        return reserved[0];
+    }
+
+    private void release(String username) {
+        userCounts.computeIfPresent(username, (user, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "analysis-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,416 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import dataaccess.AnalysisDAO;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.AnalysisCheckpoint;
+import model.GameData;
+import model.MoveAnalysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class that analyzes the stored games in bulk, scoring every
+ * position of every game with a fixed-depth search and saving how accurate
+ * each move was.
+ * <p>
+ * A job reads the games a page at a time in gameID order and hands each game
+ * to a fixed pool of worker threads, with only a few games per thread waiting
+ * at once. After each page it saves a checkpoint: the last game before which
+ * every game is finished. A job started again under the same name carries on
+ * from its checkpoint instead of starting over.
+ */
+public class BulkAnalysisService {
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_DEPTH = 6;
+    static final int PAGE_SIZE = 50;
+    private static final int GAMES_PER_THREAD = 2;
+    private static final int TABLE_MEGABYTES = 16;
+    // Mates are scored as this, so one missed mate does not outweigh the rest of a game
+    private static final int MAX_SCORE = 1000;
+
+    private enum Status { RUNNING, ANALYZED, SKIPPED }
+
+    private final GameDAO gameDAO; // DAO the stored games are read from
+    private final AnalysisDAO analysisDAO; // DAO the results and checkpoints are written to
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final ThreadLocal<Search> searches =
+            ThreadLocal.withInitial(() -> new Search(new TranspositionTable(TABLE_MEGABYTES)));
+
+    /**
+     * Constructor for BulkAnalysisService using one thread per processor.
+     *
+     * @param gameDAO     The data access object responsible for managing game data.
+     * @param analysisDAO The data access object responsible for managing analysis results.
+     */
+    public BulkAnalysisService(GameDAO gameDAO, AnalysisDAO analysisDAO) {
+        this(gameDAO, analysisDAO, DEFAULT_THREADS);
+    }
+
+    /**
+     * Constructor for BulkAnalysisService.
+     *
+     * @param gameDAO     The data access object responsible for managing game data.
+     * @param analysisDAO The data access object responsible for managing analysis results.
+     * @param threads     The number of games analyzed at once.
+     */
+    public BulkAnalysisService(GameDAO gameDAO, AnalysisDAO analysisDAO, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Bulk analysis needs at least 1 thread: " + threads);
+        }
+        this.gameDAO = gameDAO;
+        this.analysisDAO = analysisDAO;
+        this.threads = threads;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads());
+    }
+
+    /**
+     * Starts a job in the background, resuming from its checkpoint if it has run before.
+     *
+     * @param jobName The job's name, which its checkpoint is saved under.
+     * @param depth   The depth to search each position to, at least 2.
+     * @return The running job.
+     * @throws DataAccessException If the checkpoint cannot be read.
+     * @throws IllegalArgumentException If the depth is out of range or differs from the job's earlier runs.
+     */
+    public Job start(String jobName, int depth) throws DataAccessException {
+        // The move played is searched one ply shallower than the position before it
+        if (depth < 2 || depth > AnalysisService.MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 2 and " + AnalysisService.MAX_DEPTH);
+        }
+        AnalysisCheckpoint checkpoint = analysisDAO.getCheckpoint(jobName);
+        if (checkpoint == null) {
+            checkpoint = new AnalysisCheckpoint(jobName, depth, 0, 0);
+        } else if (checkpoint.depth() != depth) {
+            throw new IllegalArgumentException("Job " + jobName + " analyzes at depth " + checkpoint.depth()
+                    + "; use a new name to analyze at depth " + depth);
+        }
+
+        Job job = new Job(checkpoint);
+        Thread reader = new Thread(job::run, "bulk-analysis-" + jobName);
+        reader.setDaemon(true);
+        reader.start();
+        return job;
+    }
+
+    /**
+     * Stops the worker threads once the games already handed to them are done.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Scores how close a move came to the best one. Both scores are turned
+     * into a chance of winning on a logistic curve, and the accuracy falls
+     * off exponentially with the chance the move gave away: nothing lost
+     * scores 100, and 10 points of winning chance lost scores about 64.
+     *
+     * @param bestScore   The value of the best move, in centipawns.
+     * @param playedScore The value of the move played, in centipawns.
+     * @return The accuracy from 0 to 100, to one decimal place.
+     */
+    public static double accuracy(int bestScore, int playedScore) {
+        double lost = Math.max(0, winChance(bestScore) - winChance(playedScore));
+        double accuracy = 103.1668 * Math.exp(-0.04354 * lost) - 3.1669;
+        return Math.round(Math.max(0, Math.min(100, accuracy)) * 10) / 10.0;
+    }
+
+    private static double winChance(int score) {
+        return 50 + 50 * (2 / (1 + Math.exp(-0.00368208 * score)) - 1);
+    }
+
+    /**
+     * Replays a game from the start and scores each of its moves. The best
+     * move is found by a search of the position before the move; a different
+     * move played is scored by a search one ply shallower of the position it
+     * leads to, so both scores reach the same horizon.
+     *
+     * @return The analysis of each move, or null if the game has no moves or
+     * its moves do not lead from the standard start to its position.
+     */
+    private List<MoveAnalysis> analyzeGame(int gameID, ChessGame stored, int depth, AtomicLong positions) {
+        List<ChessMove> played = stored.getMoveHistory();
+        if (played.isEmpty()) {
+            return null;
+        }
+
+        Search search = searches.get();
+        SearchLimits limits = SearchLimits.depth(depth);
+        SearchLimits afterMove = SearchLimits.depth(depth - 1);
+        List<MoveAnalysis> moves = new ArrayList<>(played.size());
+        ChessGame replay = new ChessGame();
+        for (int ply = 0; ply < played.size(); ply++) {
+            ChessMove move = played.get(ply);
+            SearchResult best = search.search(replay, limits);
+            positions.incrementAndGet();
+            try {
+                replay.makeMove(move);
+            } catch (InvalidMoveException e) {
+                return null;
+            }
+
+            int bestScore = clamp(best.score());
+            int playedScore = bestScore;
+            if (!move.equals(best.bestMove())) {
+                // The search after the move is from the opponent's side
+                playedScore = clamp(-search.search(replay, afterMove).score());
+                positions.incrementAndGet();
+            }
+            moves.add(new MoveAnalysis(gameID, ply, notation(move), notation(best.bestMove()), bestScore,
+                    playedScore, accuracy(bestScore, playedScore), depth));
+        }
+
+        // A game set up by hand can still have moves that are legal from the start, but ends somewhere else
+        return replay.zobristKey() == stored.zobristKey() ? moves : null;
+    }
+
+    private static int clamp(int score) {
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    private static String notation(ChessMove move) {
+        return Move.toString(Move.fromChessMove(move));
+    }
+
+    /**
+     * One run of a bulk analysis job. Its methods may be called from any thread.
+     */
+    public class Job {
+        private final String name;
+        private final int depth;
+        private final Semaphore slots = new Semaphore(threads * GAMES_PER_THREAD);
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AtomicInteger gamesAnalyzed = new AtomicInteger();
+        private final AtomicInteger gamesSkipped = new AtomicInteger();
+        private final AtomicLong positions = new AtomicLong();
+        // Games handed out and not yet covered by the checkpoint, by gameID; guarded by this
+        private final TreeMap<Integer, Status> games = new TreeMap<>();
+        private AnalysisCheckpoint checkpoint;
+        private volatile boolean cancelled;
+        private volatile Exception failure;
+
+        private Job(AnalysisCheckpoint checkpoint) {
+            this.name = checkpoint.jobName();
+            this.depth = checkpoint.depth();
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * @return The job's name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The number of games analyzed by this run.
+         */
+        public int getGamesAnalyzed() {
+            return gamesAnalyzed.get();
+        }
+
+        /**
+         * @return The number of games this run left out because they have no moves or were set up by hand.
+         */
+        public int getGamesSkipped() {
+            return gamesSkipped.get();
+        }
+
+        /**
+         * @return The number of positions searched by this run.
+         */
+        public long getPositions() {
+            return positions.get();
+        }
+
+        /**
+         * @return The job's progress as of its last saved checkpoint, across all of its runs.
+         */
+        public synchronized AnalysisCheckpoint getCheckpoint() {
+            return checkpoint;
+        }
+
+        /**
+         * @return True once the job has stopped, whether finished, cancelled or failed.
+         */
+        public boolean isDone() {
+            return finished.getCount() == 0;
+        }
+
+        /**
+         * Stops handing out games. Games already being analyzed finish, and
+         * the checkpoint is saved so the job can be resumed.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Waits for the job to stop.
+         *
+         * @throws DataAccessException If the job stopped because games or results could not be read or saved.
+         * @throws InterruptedException If the wait is interrupted.
+         */
+        public void await() throws DataAccessException, InterruptedException {
+            finished.await();
+            if (failure instanceof DataAccessException e) {
+                throw e;
+            }
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+        }
+
+        /**
+         * Hands out the games, then waits for the workers and saves the final checkpoint.
+         */
+        private void run() {
+            try {
+                readGames();
+            } catch (DataAccessException | RuntimeException e) {
+                fail(e);
+            } catch (InterruptedException e) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+            }
+            try {
+                // Taking every slot waits for the games already handed out
+                slots.acquireUninterruptibly(threads * GAMES_PER_THREAD);
+                saveCheckpoint();
+            } catch (DataAccessException | RuntimeException e) {
+                fail(e);
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Reads the games page by page and hands them to the workers,
+         * saving a checkpoint after each page.
+         */
+        private void readGames() throws DataAccessException, InterruptedException {
+            int after = checkpoint.lastGameID();
+            while (!isStopping()) {
+                List<GameData> page = gameDAO.listGamesAfter(after, PAGE_SIZE);
+                if (page.isEmpty()) {
+                    return;
+                }
+                for (GameData game : page) {
+                    if (isStopping()) {
+                        return;
+                    }
+                    submit(game);
+                    after = game.gameID();
+                }
+                saveCheckpoint();
+            }
+        }
+
+        private boolean isStopping() {
+            return cancelled || failure != null;
+        }
+
+        private void submit(GameData game) throws InterruptedException {
+            slots.acquire();
+            synchronized (this) {
+                games.put(game.gameID(), Status.RUNNING);
+            }
+            try {
+                executor.execute(() -> analyze(game));
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                throw e;
+            }
+        }
+
+        /**
+         * Analyzes one game on a worker thread. A game that is cancelled or
+         * fails stays RUNNING, which holds the checkpoint before it.
+         */
+        private void analyze(GameData game) {
+            try {
+                if (isStopping()) {
+                    return;
+                }
+                List<MoveAnalysis> moves = game.game() == null ? null
+                        : analyzeGame(game.gameID(), game.game(), depth, positions);
+                if (moves == null) {
+                    gamesSkipped.incrementAndGet();
+                } else {
+                    analysisDAO.saveGameAnalysis(game.gameID(), moves);
+                    gamesAnalyzed.incrementAndGet();
+                }
+                synchronized (this) {
+                    games.put(game.gameID(), moves == null ? Status.SKIPPED : Status.ANALYZED);
+                }
+            } catch (DataAccessException | RuntimeException e) {
+                fail(e);
+            } finally {
+                slots.release();
+            }
+        }
+
+        private synchronized void fail(Exception e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Moves the checkpoint past the finished games at the front of the
+         * queue and saves it.
+         */
+        private void saveCheckpoint() throws DataAccessException {
+            AnalysisCheckpoint next;
+            synchronized (this) {
+                int lastGameID = checkpoint.lastGameID();
+                int analyzed = checkpoint.gamesAnalyzed();
+                while (!games.isEmpty() && games.firstEntry().getValue() != Status.RUNNING) {
+                    Map.Entry<Integer, Status> game = games.pollFirstEntry();
+                    lastGameID = game.getKey();
+                    if (game.getValue() == Status.ANALYZED) {
+                        analyzed++;
+                    }
+                }
+                next = new AnalysisCheckpoint(name, depth, lastGameID, analyzed);
+                if (next.equals(checkpoint)) {
+                    return;
+                }
+                checkpoint = next;
+            }
+            analysisDAO.saveCheckpoint(next);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "bulk-analysis-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package service;
+
+import chess.engine.OpeningBookBuilder;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.GameData;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Service class that builds the opening book from the games stored on the server.
+ */
+public class OpeningBookService {
+    private static final int PAGE_SIZE = 100; // Games read per query, so the whole table is never held at once
+    private final GameDAO gameDAO; // DAO the stored games are read from
+
+    /**
+     * Constructor for OpeningBookService.
+     * @param gameDAO The data access object responsible for managing game data.
+     */
+    public OpeningBookService(GameDAO gameDAO) {
+        this.gameDAO = gameDAO;
+    }
+
+    /**
+     * Writes an opening book from the first plies of every stored game.
+     * Games whose position was set up by hand are left out.
+     *
+     * @param path   The book file to create or replace.
+     * @param maxPly How many plies of each game to include.
+     * @return The number of games included.
+     * @throws DataAccessException If the games cannot be read.
+     * @throws IOException If the book cannot be written.
+     */
+    public int buildBook(Path path, int maxPly) throws DataAccessException, IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+        List<GameData> page = gameDAO.listGamesAfter(0, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            for (GameData game : page) {
+                if (game.game() != null) {
+                    builder.add(game.game());
+                }
+            }
+            page = gameDAO.listGamesAfter(page.get(page.size() - 1).gameID(), PAGE_SIZE);
+        }
+        builder.write(path);
+        return builder.games();
+    }
+}
@@ -0,0 +1,127 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AnalysisCheckpoint;
+import model.GameData;
+import model.MoveAnalysis;
+import model.UserData;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public class SQLAnalysisDAOTests {
+
+    private SQLAnalysisDAO analysisDAO;
+    private int gameID;
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        clearAllTables();
+        analysisDAO = new SQLAnalysisDAO();
+        new SQLUserDAO().createUser(new UserData("whiteUser", "pass", "white@example.com"));
+        gameID = new SQLGameDAO().createGame(new GameData(0, "whiteUser", null, "Analyzed Game", new ChessGame()));
+    }
+
+    @AfterEach
+    public void tearDown() throws DataAccessException {
+        clearAllTables();
+    }
+
+    private void clearAllTables() throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SET FOREIGN_KEY_CHECKS=0")) {
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM MoveAnalyses")) {
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM AnalysisJobs")) {
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM Games")) {
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM Users")) {
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SET FOREIGN_KEY_CHECKS=1")) {
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error clearing database: " + e.getMessage());
+        }
+    }
+
+    private MoveAnalysis analysis(int ply, String move, double accuracy) {
+        return new MoveAnalysis(gameID, ply, move, "e2e4", 30, 20, accuracy, 6);
+    }
+
+    @Test
+    @DisplayName("saveGameAnalysis - Success (positive)")
+    public void testSaveGameAnalysisSuccess() throws DataAccessException {
+        List<MoveAnalysis> moves = List.of(analysis(0, "e2e4", 100.0), analysis(1, "e7e5", 97.5));
+        analysisDAO.saveGameAnalysis(gameID, moves);
+        assertEquals(moves, analysisDAO.getGameAnalysis(gameID));
+    }
+
+    @Test
+    @DisplayName("saveGameAnalysis - Success (positive) replaces an earlier analysis")
+    public void testSaveGameAnalysisReplaces() throws DataAccessException {
+        analysisDAO.saveGameAnalysis(gameID, List.of(analysis(0, "e2e4", 100.0), analysis(1, "e7e5", 97.5)));
+        List<MoveAnalysis> again = List.of(analysis(0, "d2d4", 90.0));
+        analysisDAO.saveGameAnalysis(gameID, again);
+        assertEquals(again, analysisDAO.getGameAnalysis(gameID));
+    }
+
+    @Test
+    @DisplayName("saveGameAnalysis - Fail (negative) for a non-existent game")
+    public void testSaveGameAnalysisFailure() throws DataAccessException {
+        MoveAnalysis orphan = new MoveAnalysis(9999, 0, "e2e4", "e2e4", 30, 30, 100.0, 6);
+        assertThrows(DataAccessException.class, () -> analysisDAO.saveGameAnalysis(9999, List.of(orphan)));
+        assertTrue(analysisDAO.getGameAnalysis(9999).isEmpty(), "Nothing should be saved");
+    }
+
+    @Test
+    @DisplayName("getGameAnalysis - Fail (negative) / or 'empty' scenario")
+    public void testGetGameAnalysisEmpty() throws DataAccessException {
+        assertTrue(analysisDAO.getGameAnalysis(gameID).isEmpty(), "Expected no analysis for a new game");
+    }
+
+    @Test
+    @DisplayName("saveCheckpoint - Success (positive) creates then updates")
+    public void testSaveCheckpointSuccess() throws DataAccessException {
+        analysisDAO.saveCheckpoint(new AnalysisCheckpoint("archive", 6, 10, 8));
+        AnalysisCheckpoint updated = new AnalysisCheckpoint("archive", 6, 25, 20);
+        analysisDAO.saveCheckpoint(updated);
+        assertEquals(updated, analysisDAO.getCheckpoint("archive"));
+    }
+
+    @Test
+    @DisplayName("saveCheckpoint - Fail (negative) with invalid data")
+    public void testSaveCheckpointFailure() {
+        DataAccessException ex = assertThrows(DataAccessException.class,
+                () -> analysisDAO.saveCheckpoint(new AnalysisCheckpoint(null, 6, 0, 0)));
+        assertEquals("Error: Invalid checkpoint", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("getCheckpoint - Fail (negative) for a job that never ran")
+    public void testGetCheckpointMissing() throws DataAccessException {
+        assertNull(analysisDAO.getCheckpoint("never run"));
+    }
+
+    @Test
+    @DisplayName("clear - Success (positive)")
+    public void testClear() throws DataAccessException {
+        analysisDAO.saveGameAnalysis(gameID, List.of(analysis(0, "e2e4", 100.0)));
+        analysisDAO.saveCheckpoint(new AnalysisCheckpoint("archive", 6, gameID, 1));
+        analysisDAO.clear();
+        assertTrue(analysisDAO.getGameAnalysis(gameID).isEmpty());
+        assertNull(analysisDAO.getCheckpoint("archive"));
+    }
+}
@@ -143,6 +143,27 @@ public class SQLGameDAOTests {
         assertTrue(allGames.isEmpty(), "Expected no games in the database");
     }
 
+    @Test
+    @DisplayName("listGamesAfter - Success (positive) pages in gameID order")
+    public void testListGamesAfterSuccess() throws DataAccessException {
+        int first = gameDAO.createGame(new GameData(0, "whiteUser", "blackUser", "Game1", new ChessGame()));
+        int second = gameDAO.createGame(new GameData(0, "whiteUser", "blackUser", "Game2", new ChessGame()));
+        int third = gameDAO.createGame(new GameData(0, "whiteUser", "blackUser", "Game3", new ChessGame()));
+
+        List<GameData> page = gameDAO.listGamesAfter(first, 1);
+        assertEquals(1, page.size(), "Page should hold at most the limit");
+        assertEquals(second, page.get(0).gameID());
+        assertEquals(List.of(second, third),
+                gameDAO.listGamesAfter(first, 10).stream().map(GameData::gameID).toList());
+    }
+
+    @Test
+    @DisplayName("listGamesAfter - Fail (negative) / or 'empty' scenario past the last game")
+    public void testListGamesAfterEmpty() throws DataAccessException {
+        int gameID = gameDAO.createGame(new GameData(0, "whiteUser", "blackUser", "Game1", new ChessGame()));
+        assertTrue(gameDAO.listGamesAfter(gameID, 10).isEmpty(), "Expected no games after the last one");
+    }
+
     @Test
     @DisplayName("clear - Success (positive)")
     public void testClearGames() throws DataAccessException {
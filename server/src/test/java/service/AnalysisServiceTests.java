@@ -0,0 +1,132 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AnalysisServiceTests {
+    private AnalysisService analysisService;
+
+    @AfterEach
+    void tearDown() {
+        analysisService.shutdown();
+    }
+
+    // Records what an analysis reports; optionally holds its worker thread until released
+    private static class RecordingListener implements AnalysisService.Listener {
+        final List<SearchResult> iterations = new ArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final CountDownLatch release;
+        SearchResult result;
+
+        RecordingListener(boolean hold) {
+            release = new CountDownLatch(hold ? 1 : 0);
+        }
+
+        @Override
+        public void onIteration(SearchResult iteration) {
+            iterations.add(iteration);
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onComplete(SearchResult result) {
+            this.result = result;
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Exception e) {
+            done.countDown();
+        }
+    }
+
+    // submit: Each iteration streams back before the final result (positive test case)
+    @Test
+    @DisplayName("Successfully stream an analysis")
+    void testSubmitStreamsIterations() throws InterruptedException {
+        analysisService = new AnalysisService(1, 4, 1);
+        RecordingListener listener = new RecordingListener(false);
+
+        analysisService.submit("alice", new ChessGame(), SearchLimits.depth(3), listener);
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS), "Analysis did not finish");
+        assertEquals(3, listener.iterations.size());
+        assertEquals(3, listener.result.depth());
+        assertNotNull(listener.result.bestMove());
+    }
+
+    // submit: A user past their cap is rejected while others are not (negative test case)
+    @Test
+    @DisplayName("Reject analysis past the per-user cap")
+    void testSubmitPerUserCap() throws InterruptedException {
+        analysisService = new AnalysisService(1, 4, 1);
+        RecordingListener running = new RecordingListener(true);
+        analysisService.submit("alice", new ChessGame(), SearchLimits.depth(2), running);
+        assertTrue(running.started.await(10, TimeUnit.SECONDS));
+
+        assertThrows(RejectedExecutionException.class, () ->
+                analysisService.submit("alice", new ChessGame(), SearchLimits.depth(2), new RecordingListener(false)));
+        RecordingListener other = new RecordingListener(false);
+        analysisService.submit("bob", new ChessGame(), SearchLimits.depth(2), other);
+
+        // Once the first analysis is done the user may ask again
+        running.release.countDown();
+        assertTrue(running.done.await(10, TimeUnit.SECONDS));
+        assertTrue(other.done.await(10, TimeUnit.SECONDS));
+        RecordingListener again = new RecordingListener(false);
+        analysisService.submit("alice", new ChessGame(), SearchLimits.depth(2), again);
+        assertTrue(again.done.await(10, TimeUnit.SECONDS));
+    }
+
+    // submit: A full queue rejects new analysis (negative test case)
+    @Test
+    @DisplayName("Reject analysis when the queue is full")
+    void testSubmitQueueFull() throws InterruptedException {
+        analysisService = new AnalysisService(1, 1, 5);
+        RecordingListener running = new RecordingListener(true);
+        analysisService.submit("alice", new ChessGame(), SearchLimits.depth(2), running);
+        assertTrue(running.started.await(10, TimeUnit.SECONDS));
+        analysisService.submit("bob", new ChessGame(), SearchLimits.depth(2), new RecordingListener(false));
+
+        assertThrows(RejectedExecutionException.class, () ->
+                analysisService.submit("carol", new ChessGame(), SearchLimits.depth(2), new RecordingListener(false)));
+        running.release.countDown();
+        assertTrue(running.done.await(10, TimeUnit.SECONDS));
+    }
+
+    // limits: Requests are bounded by depth and time
+    @Test
+    @DisplayName("Bound requested limits")
+    void testLimits() {
+        analysisService = new AnalysisService(1, 1, 1);
+
+        SearchLimits deep = AnalysisService.limits(100, null);
+        assertEquals(AnalysisService.MAX_DEPTH, deep.depth());
+        assertEquals(AnalysisService.MAX_TIME_MILLIS, deep.timeMillis());
+
+        SearchLimits none = AnalysisService.limits(null, null);
+        assertEquals(AnalysisService.DEFAULT_TIME_MILLIS, none.timeMillis());
+
+        SearchLimits longTime = AnalysisService.limits(5, 1_000_000);
+        assertEquals(5, longTime.depth());
+        assertEquals(AnalysisService.MAX_TIME_MILLIS, longTime.timeMillis());
+    }
+}
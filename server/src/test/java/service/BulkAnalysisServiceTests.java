@@ -0,0 +1,231 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import dataaccess.AnalysisDAO;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.AnalysisCheckpoint;
+import model.GameData;
+import model.MoveAnalysis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BulkAnalysisServiceTests {
+    private MemoryGameDAO gameDAO;
+    private MemoryAnalysisDAO analysisDAO;
+    private BulkAnalysisService bulkAnalysisService;
+
+    // Keeps games in memory, so the job runner can be tested without a database
+    private static class MemoryGameDAO implements GameDAO {
+        final TreeMap<Integer, GameData> games = new TreeMap<>();
+
+        @Override
+        public int createGame(GameData game) {
+            int gameID = games.isEmpty() ? 1 : games.lastKey() + 1;
+            games.put(gameID, new GameData(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                    game.game(), game.gameOver()));
+            return gameID;
+        }
+
+        @Override
+        public GameData getGame(int gameID) throws DataAccessException {
+            GameData game = games.get(gameID);
+            if (game == null) {
+                throw new DataAccessException("Error: Game not found.");
+            }
+            return game;
+        }
+
+        @Override
+        public List<GameData> listGames() {
+            return new ArrayList<>(games.values());
+        }
+
+        @Override
+        public List<GameData> listGamesAfter(int gameID, int limit) {
+            return games.tailMap(gameID, false).values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public void updateGame(GameData game) {
+            games.put(game.gameID(), game);
+        }
+
+        @Override
+        public void clear() {
+            games.clear();
+        }
+    }
+
+    private static class MemoryAnalysisDAO implements AnalysisDAO {
+        final Map<Integer, List<MoveAnalysis>> analyses = new HashMap<>();
+        final Map<String, AnalysisCheckpoint> checkpoints = new HashMap<>();
+
+        @Override
+        public synchronized void saveGameAnalysis(int gameID, List<MoveAnalysis> moves) {
+            analyses.put(gameID, List.copyOf(moves));
+        }
+
+        @Override
+        public synchronized List<MoveAnalysis> getGameAnalysis(int gameID) {
+            return analyses.getOrDefault(gameID, List.of());
+        }
+
+        @Override
+        public synchronized AnalysisCheckpoint getCheckpoint(String jobName) {
+            return checkpoints.get(jobName);
+        }
+
+        @Override
+        public synchronized void saveCheckpoint(AnalysisCheckpoint checkpoint) {
+            checkpoints.put(checkpoint.jobName(), checkpoint);
+        }
+
+        @Override
+        public synchronized void clear() {
+            analyses.clear();
+            checkpoints.clear();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        gameDAO = new MemoryGameDAO();
+        analysisDAO = new MemoryAnalysisDAO();
+        bulkAnalysisService = new BulkAnalysisService(gameDAO, analysisDAO, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkAnalysisService.shutdown();
+    }
+
+    private static ChessMove move(String text) {
+        return ChessMove.of(ChessPosition.of(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                ChessPosition.of(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), null);
+    }
+
+    private int addGame(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String text : moves) {
+            game.makeMove(move(text));
+        }
+        return gameDAO.createGame(new GameData(0, "whiteUser", "blackUser", "Game", game));
+    }
+
+    // start: Every move of every game is scored (positive test case)
+    @Test
+    @DisplayName("Analyze every stored game")
+    void testAnalyzeGames() throws Exception {
+        int first = addGame("e2e4", "e7e5", "g1f3");
+        int second = addGame("d2d4", "d7d5");
+
+        BulkAnalysisService.Job job = bulkAnalysisService.start("archive", 2);
+        job.await();
+
+        assertEquals(2, job.getGamesAnalyzed());
+        // Each position before a move, and the one after it unless the engine would have played it too
+        assertTrue(job.getPositions() >= 5 && job.getPositions() <= 10, "Positions: " + job.getPositions());
+        assertEquals(new AnalysisCheckpoint("archive", 2, second, 2), analysisDAO.getCheckpoint("archive"));
+
+        List<MoveAnalysis> moves = analysisDAO.getGameAnalysis(first);
+        assertEquals(3, moves.size());
+        for (int ply = 0; ply < moves.size(); ply++) {
+            MoveAnalysis analysis = moves.get(ply);
+            assertEquals(ply, analysis.ply());
+            assertEquals(2, analysis.depth());
+            assertTrue(analysis.accuracy() >= 0 && analysis.accuracy() <= 100);
+        }
+        assertEquals("e2e4", moves.get(0).move());
+        assertEquals("g1f3", moves.get(2).move());
+    }
+
+    // start: A blunder scores worse than the engine's own choice (positive test case)
+    @Test
+    @DisplayName("Blunders lose accuracy")
+    void testBlunder() throws Exception {
+        // 2...Qh4 leaves the queen to 3.Nxh4
+        int gameID = addGame("e2e4", "e7e5", "g1f3", "d8h4");
+        bulkAnalysisService.start("blunders", 3).await();
+
+        MoveAnalysis blunder = analysisDAO.getGameAnalysis(gameID).get(3);
+        assertNotEquals("d8h4", blunder.bestMove());
+        assertTrue(blunder.playedScore() < blunder.bestScore() - 500, "Queen loss: " + blunder);
+        assertTrue(blunder.accuracy() < 20, "Accuracy: " + blunder.accuracy());
+    }
+
+    // start: A second run resumes after the checkpoint (positive test case)
+    @Test
+    @DisplayName("Resume from a checkpoint")
+    void testResume() throws Exception {
+        int first = addGame("e2e4");
+        int second = addGame("d2d4");
+        analysisDAO.saveCheckpoint(new AnalysisCheckpoint("archive", 2, first, 1));
+
+        BulkAnalysisService.Job job = bulkAnalysisService.start("archive", 2);
+        job.await();
+
+        assertEquals(1, job.getGamesAnalyzed());
+        assertTrue(analysisDAO.getGameAnalysis(first).isEmpty(), "The checkpointed game is not analyzed again");
+        assertEquals(1, analysisDAO.getGameAnalysis(second).size());
+        assertEquals(new AnalysisCheckpoint("archive", 2, second, 2), job.getCheckpoint());
+    }
+
+    // start: Games without moves from the start position are skipped (negative test case)
+    @Test
+    @DisplayName("Skip games that cannot be replayed")
+    void testSkipGames() throws Exception {
+        int empty = gameDAO.createGame(new GameData(0, null, null, "Empty", new ChessGame()));
+        ChessGame setUp = Fen.toGame("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        setUp.makeMove(move("e2e4"));
+        gameDAO.createGame(new GameData(0, null, null, "Set Up", setUp));
+        int last = addGame("e2e4");
+
+        BulkAnalysisService.Job job = bulkAnalysisService.start("archive", 2);
+        job.await();
+
+        assertEquals(1, job.getGamesAnalyzed());
+        assertEquals(2, job.getGamesSkipped());
+        assertTrue(analysisDAO.getGameAnalysis(empty).isEmpty());
+        // Skipped games still move the checkpoint, but do not count as analyzed
+        assertEquals(new AnalysisCheckpoint("archive", 2, last, 1), job.getCheckpoint());
+    }
+
+    // start: A job cannot change depth between runs (negative test case)
+    @Test
+    @DisplayName("Reject a different depth for an existing job")
+    void testDepthMismatch() {
+        analysisDAO.saveCheckpoint(new AnalysisCheckpoint("archive", 4, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> bulkAnalysisService.start("archive", 6));
+        assertThrows(IllegalArgumentException.class, () -> bulkAnalysisService.start("other", 0));
+        // The move played is searched one ply shallower, which needs at least one ply
+        assertThrows(IllegalArgumentException.class, () -> bulkAnalysisService.start("other", 1));
+    }
+
+    // accuracy: Accuracy falls as winning chances are lost (positive test case)
+    @Test
+    @DisplayName("Accuracy from scores")
+    void testAccuracy() {
+        assertEquals(100.0, BulkAnalysisService.accuracy(50, 50));
+        assertEquals(100.0, BulkAnalysisService.accuracy(50, 80), "Gaining on the search is not penalised");
+        double small = BulkAnalysisService.accuracy(50, 0);
+        double large = BulkAnalysisService.accuracy(300, -300);
+        assertTrue(small > 80 && small < 100, "Small loss: " + small);
+        assertTrue(large < small, "Large loss: " + large);
+        assertEquals(0.0, BulkAnalysisService.accuracy(1000, -1000));
+    }
+}
@@ -0,0 +1,97 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.LegalMoveGenerator;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Positions scored per microsecond by {@link Evaluator} one board at a time,
+ * and by {@link BatchEvaluator} with and without the Vector API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchEvaluatorBenchmark {
+    private static final int POSITIONS = 4096;
+    private static final int MAX_PLIES = 80;
+
+    private final List<ChessBoard> boards = new ArrayList<>();
+    private final Evaluator evaluator = new Evaluator();
+    private final BatchEvaluator scalar = new BatchEvaluator(EvaluationWeights.defaults(), false);
+    private final BatchEvaluator vector = new BatchEvaluator();
+    private final int[] scores = new int[POSITIONS];
+    private long[] packed;
+
+    /**
+     * Collects positions from seeded random games, so every phase of the game is represented.
+     */
+    @Setup
+    public void setUp() {
+        if (!vector.isVectorized()) {
+            throw new IllegalStateException("The Vector API is not available");
+        }
+        Random random = new Random(42);
+        MoveList moves = new MoveList();
+        while (boards.size() < POSITIONS) {
+            ChessBoard board = new ChessBoard();
+            board.resetBoard();
+            ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+            for (int ply = 0; ply < MAX_PLIES && boards.size() < POSITIONS; ply++) {
+                moves.clear();
+                LegalMoveGenerator.generateMoves(board, side, moves);
+                if (moves.size() == 0) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                boards.add(board.copy());
+            }
+        }
+        packed = BatchEvaluator.pack(boards);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int oneAtATime() {
+        int total = 0;
+        for (ChessBoard board : boards) {
+            evaluator.reset(board);
+            total += evaluator.evaluate(ChessGame.TeamColor.WHITE);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int[] batchScalar() {
+        scalar.evaluate(packed, POSITIONS, scores);
+        return scores;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int[] batchVector() {
+        vector.evaluate(packed, POSITIONS, scores);
+        return scores;
+    }
+}
@@ -1,36 +1,30 @@
 package chess;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public abstract class AbstractFixedMovesCalculator implements PieceMovesCalculator {
-    protected abstract int[][] getOffsets();
+    /**
+     * @param square the 0-63 square the piece stands on
+     * @return every square the piece attacks from there
+     */
+    protected abstract long getAttacks(int square);
 
     @Override
-    public Collection<ChessMove> calculateMoves(ChessPosition position, ChessBoard board) {
-        Collection<ChessMove> validMoves = new ArrayList<>();
-        int[][] offsets = getOffsets();
-
-        ChessPosition internalPos = board.fromChessFormat(position);
-
-        for (int[] offset : offsets) {
-            int newRow = internalPos.getRow() + offset[0];
-            int newCol = internalPos.getColumn() + offset[1];
-            ChessPosition newInternalPos = new ChessPosition(newRow, newCol);
-            ChessPosition newPosition = board.toChessFormat(newInternalPos);
-
-            if (!board.isWithinBounds(newPosition)) {
-                continue;
-            }
+    public void generateMoves(int square, ChessBoard board, MoveList moves) {
+        generateMoves(square, board, MoveType.ALL, moves);
+    }
 
-            ChessPiece currentPiece = board.getPiece(position);
-            ChessPiece targetPiece = board.getPiece(newPosition);
-            // Allow the move if the square is empty, or if it's occupied by an opponent
-            if (targetPiece == null || currentPiece.getTeamColor() != targetPiece.getTeamColor()) {
-                validMoves.add(new ChessMove(position, newPosition, null));
-            }
+    @Override
+    public void generateMoves(int square, ChessBoard board, MoveType type, MoveList moves) {
+        ChessPiece currentPiece = board.getPiece(square);
+        long own = board.getOccupancy(currentPiece.getTeamColor());
+        long enemies = board.getOccupancy() & ~own;
+
+        // Allow the move if the square is empty, or if it's occupied by an opponent
+        long targets = getAttacks(square) & Bitboards.targets(type, own, enemies);
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & (1L << target)) != 0 ? Move.CAPTURE : 0;
+            moves.add(Move.encode(square, target, flags));
+            targets &= targets - 1;
         }
-
-        return validMoves;
     }
 }
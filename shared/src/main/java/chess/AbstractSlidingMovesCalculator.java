@@ -1,40 +1,32 @@
 package chess;
 
-
-import java.util.ArrayList;
-import java.util.Collection;
-
 public abstract class AbstractSlidingMovesCalculator implements PieceMovesCalculator {
-    protected abstract int[][] getDirections();
+    /**
+     * @param square    the 0-63 square the piece stands on
+     * @param occupancy every occupied square on the board
+     * @return every square the piece attacks, up to and including the first blocker on each ray
+     */
+    protected abstract long getAttacks(int square, long occupancy);
 
     @Override
-    public Collection<ChessMove> calculateMoves(ChessPosition position, ChessBoard board) {
-        Collection<ChessMove> validMoves = new ArrayList<>();
-        int[][] directions = getDirections();
-        ChessPosition start = board.fromChessFormat(position);
-        for (int[] direction : directions) {
-            int row = start.getRow();
-            int col = start.getColumn();
-            while (true) {
-                row += direction[0];
-                col += direction[1];
-                ChessPosition newInternalPos = new ChessPosition(row, col);
-                ChessPosition newPos = board.toChessFormat(newInternalPos);
-                if (!board.isWithinBounds(newPos)) {
-                    break;
-                }
-                ChessMove move = new ChessMove(position, newPos, null);
-                ChessPiece currentPiece = board.getPiece(position);
-                ChessPiece encountered = board.getPiece(newPos);
-                if (encountered != null) {
-                    if (currentPiece.getTeamColor() != encountered.getTeamColor()) {
-                        validMoves.add(move);
-                    }
-                    break; // Can't jump over pieces.
-                }
-                validMoves.add(move);
-            }
+    public void generateMoves(int square, ChessBoard board, MoveList moves) {
+        generateMoves(square, board, MoveType.ALL, moves);
+    }
+
+    @Override
+    public void generateMoves(int square, ChessBoard board, MoveType type, MoveList moves) {
+        ChessPiece currentPiece = board.getPiece(square);
+        long own = board.getOccupancy(currentPiece.getTeamColor());
+        long enemies = board.getOccupancy() & ~own;
+
+        // One table lookup gives the whole attack set; drop squares held by our own pieces
+        long targets = getAttacks(square, board.getOccupancy()) & Bitboards.targets(type, own, enemies);
+
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & (1L << target)) != 0 ? Move.CAPTURE : 0;
+            moves.add(Move.encode(square, target, flags));
+            targets &= targets - 1;
         }
-        return validMoves;
     }
 }
@@ -2,8 +2,8 @@ package chess;
 
 public class BishopMovesCalculator extends AbstractSlidingMovesCalculator {
     @Override
-    protected int[][] getDirections() {
+    protected long getAttacks(int square, long occupancy) {
         // Bishop moves diagonally.
-        return new int[][] { {1, 1}, {1, -1}, {-1, 1}, {-1, -1} };
+        return MagicBitboards.bishopAttacks(square, occupancy);
     }
 }
@@ -0,0 +1,208 @@
+package chess;
+
+/**
+ * Static helpers for working with bitboards (64-bit square sets).
+ * <p>
+ * Squares are numbered 0-63 starting at a1 and moving along each rank,
+ * so a1 = 0, h1 = 7, a8 = 56 and h8 = 63. Bit n of a bitboard is set when
+ * square n is a member of the set.
+ */
+public final class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    // Indexed by TeamColor ordinal, then square
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    // Indexed [from][to]; zero unless the squares share a rank, file or diagonal
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        // The knight's moves: two in one direction and one perpendicular.
+        int[][] knightOffsets = {
+                {1, 2}, {1, -2}, {-1, 2}, {-1, -2},
+                {2, 1}, {2, -1}, {-2, 1}, {-2, -1}
+        };
+        // The king can move one square in any direction.
+        int[][] kingOffsets = {
+                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+        };
+        // Pawns capture diagonally forward: up the board for white, down for black.
+        int[][] whitePawnOffsets = { {1, -1}, {1, 1} };
+        int[][] blackPawnOffsets = { {-1, -1}, {-1, 1} };
+
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsetTargets(square, knightOffsets);
+            KING_ATTACKS[square] = offsetTargets(square, kingOffsets);
+            PAWN_ATTACKS[0][square] = offsetTargets(square, whitePawnOffsets);
+            PAWN_ATTACKS[1][square] = offsetTargets(square, blackPawnOffsets);
+        }
+
+        // Walk the queen directions from every square to fill the between and line tables
+        for (int square = 0; square < 64; square++) {
+            for (int[] direction : kingOffsets) {
+                long fullLine = ray(square, direction[0], direction[1])
+                        | ray(square, -direction[0], -direction[1]) | (1L << square);
+                long passed = 0;
+                int row = (square >>> 3) + direction[0];
+                int col = (square & 7) + direction[1];
+                while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    int target = row * 8 + col;
+                    BETWEEN[square][target] = passed;
+                    LINE[square][target] = fullLine;
+                    passed |= 1L << target;
+                    row += direction[0];
+                    col += direction[1];
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return the squares a knight on the given square attacks
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a king on the given square attacks
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the given square attacks
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared rank, file
+     * or diagonal, or an empty set if they are not aligned (or adjacent)
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal running through both squares,
+     * or an empty set if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * @param row    1-8, where 1 is white's back rank
+     * @param column 1-8, where 1 is the a-file
+     * @return the 0-63 square index for the given row and column
+     */
+    public static int square(int row, int column) {
+        return ((row - 1) << 3) | (column - 1);
+    }
+
+    /**
+     * @param position a position in chess format (rows and columns 1-8)
+     * @return the 0-63 square index for the position
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-8 row of a 0-63 square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-8 column of a 0-63 square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return the chess format position of a 0-63 square index
+     */
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square);
+    }
+
+    /**
+     * @return a bitboard with only the given square set
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return the lowest square in the set, or 64 if the set is empty
+     */
+    public static int lowestSquare(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * @return the number of squares in the set
+     */
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+
+    /**
+     * @param type    which moves are wanted
+     * @param own     the moving side's pieces
+     * @param enemies the other side's pieces
+     * @return the squares a non-pawn move of that type may land on
+     */
+    public static long targets(MoveType type, long own, long enemies) {
+        return switch (type) {
+            case ALL -> ~own;
+            case CAPTURES -> enemies;
+            case QUIETS -> ~(own | enemies);
+        };
+    }
+
+    /**
+     * @return every square from square (exclusive) to the board edge in one direction
+     */
+    private static long ray(int square, int rowStep, int colStep) {
+        long squares = 0;
+        int row = (square >>> 3) + rowStep;
+        int col = (square & 7) + colStep;
+        while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+            squares |= 1L << (row * 8 + col);
+            row += rowStep;
+            col += colStep;
+        }
+        return squares;
+    }
+
+    /**
+     * @return every on-board square reached by adding a {row, column} offset to square
+     */
+    private static long offsetTargets(int square, int[][] offsets) {
+        long targets = 0;
+        for (int[] offset : offsets) {
+            int row = (square >>> 3) + offset[0];
+            int col = (square & 7) + offset[1];
+            if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                targets |= 1L << (row * 8 + col);
+            }
+        }
+        return targets;
+    }
+}
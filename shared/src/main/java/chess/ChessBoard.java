@@ -10,22 +10,68 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessBoard {
+    // Row 0 is black's back rank. Write through addPiece so the bitboards below stay in sync.
     public ChessPiece[][] squares = new ChessPiece[8][8];
 
+    // Bitboard mirror of squares, indexed by pieceIndex(color, type). Not serialized;
+    // rebuilt from squares whenever the array has been swapped out (e.g. by Gson).
+    private transient long[] pieceSets = new long[12];
+    private transient long[] colorSets = new long[2];
+    private transient long occupied;
+    // King square per TeamColor ordinal, or -1 when that side has no king
+    private transient int[] kingSquares = { -1, -1 };
+    // Zobrist key of the piece placement alone, updated with every setPiece
+    private transient long pieceKey;
+    private transient ChessPiece[][] indexedSquares;
+
+    // Rule state that is not visible in the placement. Serialized with the board; boards saved
+    // before these fields existed get the constructor defaults. Not part of equals/hashCode.
+    // Castling rights still held (GameState bits); a right only counts while the king and rook are home.
+    // Starts as RIGHTS_NOT_SAVED, which a hand-built board reads as every right and ensureIndexed resolves
+    // for a board loaded from a save that has no rights
+    private int castlingRights = RIGHTS_NOT_SAVED;
+    // Square a pawn just skipped with a double push, or -1
+    private int enPassantSquare = -1;
+    // Plies since the last capture or pawn move
+    private int halfmoveClock;
+
+    private static final int RIGHTS_NOT_SAVED = -1;
+
+    // Castling rights kept when a move starts or ends on a square; clears rights when kings and rooks
+    // move or rooks are captured
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, GameState.ALL_CASTLING);
+        CASTLING_MASK[4] &= ~(GameState.WHITE_KINGSIDE | GameState.WHITE_QUEENSIDE);
+        CASTLING_MASK[7] &= ~GameState.WHITE_KINGSIDE;
+        CASTLING_MASK[0] &= ~GameState.WHITE_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(GameState.BLACK_KINGSIDE | GameState.BLACK_QUEENSIDE);
+        CASTLING_MASK[63] &= ~GameState.BLACK_KINGSIDE;
+        CASTLING_MASK[56] &= ~GameState.BLACK_QUEENSIDE;
+    }
+
+    // Undo record layout: captured pieceIndex + 1 in bits 0-3, then the state the move overwrote
+    private static final int UNDO_CASTLING_SHIFT = 4;
+    private static final int UNDO_EN_PASSANT_SHIFT = 8;
+    private static final long UNDO_EN_PASSANT_CAPTURE = 1L << 15;
+    private static final int UNDO_HALFMOVE_SHIFT = 16;
+
     public ChessBoard() {
+        indexedSquares = squares;
     }
 
     public ChessPosition toChessFormat(ChessPosition internalPosition){
         int row = 8 - internalPosition.getRow();
         int col = internalPosition.getColumn() + 1;
-        ChessPosition position = new ChessPosition(row,col);
+        ChessPosition position = ChessPosition.of(row,col);
         return position;
     }
 
     public ChessPosition fromChessFormat(ChessPosition position){
         int row = 8 - position.getRow();
         int col = position.getColumn() - 1;
-        ChessPosition internalPosition = new ChessPosition(row,col);
+        ChessPosition internalPosition = ChessPosition.of(row,col);
         return internalPosition;
     }
 
@@ -41,19 +87,21 @@ public class ChessBoard {
     public ChessBoard copy() {
         ChessBoard newBoard = new ChessBoard(); // Create new board object
 
+        // Pieces are immutable, so the rows can be copied by reference
         for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                // Copy each piece (if not null)
-                if (this.squares[row][col] != null) {
-                    ChessPiece originalPiece = this.squares[row][col];
-
-                    // Manually create a new ChessPiece with the same attributes
-                    ChessPiece copiedPiece = new ChessPiece(originalPiece.getTeamColor(), originalPiece.getPieceType());
-
-                    newBoard.squares[row][col] = copiedPiece; // Place the copied piece in the new board
-                }
-            }
+            newBoard.squares[row] = this.squares[row].clone();
         }
+
+        ensureIndexed();
+        newBoard.pieceSets = this.pieceSets.clone();
+        newBoard.colorSets = this.colorSets.clone();
+        newBoard.occupied = this.occupied;
+        newBoard.kingSquares = this.kingSquares.clone();
+        newBoard.pieceKey = this.pieceKey;
+        newBoard.indexedSquares = newBoard.squares;
+        newBoard.castlingRights = this.castlingRights;
+        newBoard.enPassantSquare = this.enPassantSquare;
+        newBoard.halfmoveClock = this.halfmoveClock;
         return newBoard;
     }
 
@@ -65,10 +113,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        ChessPosition internalPosition = fromChessFormat(position);
-        int internalRow = internalPosition.getRow();
-        int internalCol = internalPosition.getColumn();
-        squares[internalRow][internalCol] = piece;
+        setPiece(Bitboards.square(position), piece);
     }
 
     /**
@@ -79,10 +124,426 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        ChessPosition internalPosition = fromChessFormat(position);
-        int internalRow = internalPosition.getRow();
-        int internalCol = internalPosition.getColumn();
-        return squares[internalRow][internalCol];
+        return squares[8 - position.getRow()][position.getColumn() - 1];
+    }
+
+    /**
+     * Gets a chess piece by its 0-63 square index (see {@link Bitboards})
+     *
+     * @param square the square to get the piece from
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[7 - (square >>> 3)][square & 7];
+    }
+
+    /**
+     * Places a piece (or null to clear) on a 0-63 square index, keeping the
+     * bitboards in sync with the squares array
+     *
+     * @param square the square to place the piece on
+     * @param piece  the piece to place, or null to empty the square
+     */
+    public void setPiece(int square, ChessPiece piece) {
+        ensureIndexed();
+        int row = 7 - (square >>> 3);
+        int col = square & 7;
+        long bit = 1L << square;
+
+        ChessPiece previous = squares[row][col];
+        if (previous != null) {
+            int index = pieceIndex(previous);
+            pieceSets[index] &= ~bit;
+            colorSets[previous.getTeamColor().ordinal()] &= ~bit;
+            occupied &= ~bit;
+            pieceKey ^= Zobrist.piece(index, square);
+        }
+
+        if (piece != null) {
+            int index = pieceIndex(piece);
+            // Store the shared instance so boards never hold duplicate pieces
+            piece = ChessPiece.of(index);
+            pieceSets[index] |= bit;
+            colorSets[piece.getTeamColor().ordinal()] |= bit;
+            occupied |= bit;
+            pieceKey ^= Zobrist.piece(index, square);
+        }
+        squares[row][col] = piece;
+
+        if (previous != null && previous.getPieceType() == ChessPiece.PieceType.KING) {
+            updateKingSquare(previous.getTeamColor());
+        }
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
+            updateKingSquare(piece.getTeamColor());
+        }
+    }
+
+    /**
+     * @return the 0-63 square of the given side's king, or -1 if it has none
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        ensureIndexed();
+        return kingSquares[color.ordinal()];
+    }
+
+    private void updateKingSquare(ChessGame.TeamColor color) {
+        long kings = pieceSets[pieceIndex(color, ChessPiece.PieceType.KING)];
+        kingSquares[color.ordinal()] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * The 64-bit Zobrist key of the piece placement, kept up to date incrementally as
+     * pieces are added, removed and moved. Equal boards always have equal keys,
+     * so a key mismatch proves two boards differ. Castling and en passant are
+     * covered separately by {@link #stateKey()}.
+     *
+     * @return the Zobrist key of the board (see {@link Zobrist})
+     */
+    public long zobristKey() {
+        ensureIndexed();
+        return pieceKey;
+    }
+
+    /**
+     * The key of the rule state that affects which moves are legal: the
+     * castling rights in effect, and the en passant file when a pawn is
+     * actually in place to capture on it. Combine with {@link #zobristKey()}
+     * and the side to move for a full position key.
+     *
+     * @return the castling and en passant part of the Zobrist key
+     */
+    public long stateKey() {
+        long key = Zobrist.castling(getCastlingRights());
+        int enPassant = getEnPassantSquare();
+        if (enPassant >= 0) {
+            // The capturing side is the one whose pawns attack the square from the far rank
+            ChessGame.TeamColor capturer = enPassant >= 32 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessGame.TeamColor pusher = capturer == ChessGame.TeamColor.WHITE
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            if ((Bitboards.pawnAttacks(pusher, enPassant)
+                    & getPieces(capturer, ChessPiece.PieceType.PAWN)) != 0) {
+                key ^= Zobrist.enPassantFile(enPassant & 7);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * The castling rights in effect: rights that were granted and not lost by
+     * a king or rook move, limited to kings and rooks still on their home
+     * squares. A hand-built board therefore allows castling exactly when the
+     * pieces stand where they started.
+     *
+     * @return a mask of GameState castling bits
+     */
+    public int getCastlingRights() {
+        ensureIndexed();
+        int rights = castlingRights & GameState.ALL_CASTLING;
+        long whiteRooks = getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        long blackRooks = getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        if (getKingSquare(ChessGame.TeamColor.WHITE) != 4) {
+            rights &= ~(GameState.WHITE_KINGSIDE | GameState.WHITE_QUEENSIDE);
+        }
+        if ((whiteRooks & Bitboards.bit(7)) == 0) {
+            rights &= ~GameState.WHITE_KINGSIDE;
+        }
+        if ((whiteRooks & Bitboards.bit(0)) == 0) {
+            rights &= ~GameState.WHITE_QUEENSIDE;
+        }
+        if (getKingSquare(ChessGame.TeamColor.BLACK) != 60) {
+            rights &= ~(GameState.BLACK_KINGSIDE | GameState.BLACK_QUEENSIDE);
+        }
+        if ((blackRooks & Bitboards.bit(63)) == 0) {
+            rights &= ~GameState.BLACK_KINGSIDE;
+        }
+        if ((blackRooks & Bitboards.bit(56)) == 0) {
+            rights &= ~GameState.BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    /**
+     * @param castlingRights a mask of GameState castling bits to grant
+     */
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & GameState.ALL_CASTLING;
+    }
+
+    /**
+     * @return the 0-63 square a pawn skipped with a double push on the last
+     * move, or -1 if the last move was not a double push
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @param enPassantSquare the square a pawn just skipped, or -1 for none
+     */
+    public void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    /**
+     * @return plies since the last capture or pawn move, for the fifty-move rule
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * Applies a packed move (see {@link Move}) in place, without checking that
+     * it is legal. Pass the returned undo record to {@link #unmakeMove} to take
+     * the move back. Castling (a king moving two files) also moves the rook, a
+     * pawn moving onto the en passant square captures the pawn beside it, and
+     * the castling rights, en passant square and halfmove clock are updated.
+     *
+     * @param move the move to apply
+     * @return a compact record of what the move destroyed (the captured piece
+     * and the previous rule state)
+     */
+    public long makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = getPiece(from);
+        ChessPiece.PieceType type = piece.getPieceType();
+
+        ensureIndexed();
+        long undo = (long) (castlingRights & GameState.ALL_CASTLING) << UNDO_CASTLING_SHIFT
+                | (long) (enPassantSquare + 1) << UNDO_EN_PASSANT_SHIFT
+                | (long) halfmoveClock << UNDO_HALFMOVE_SHIFT;
+
+        ChessPiece captured = getPiece(to);
+        if (type == ChessPiece.PieceType.PAWN && to == enPassantSquare && captured == null) {
+            // The captured pawn stands beside the moving pawn, not on the target square
+            int capturedSquare = (from & ~7) | (to & 7);
+            captured = getPiece(capturedSquare);
+            setPiece(capturedSquare, null);
+            undo |= UNDO_EN_PASSANT_CAPTURE;
+        } else if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, false);
+        }
+        if (captured != null) {
+            undo |= pieceIndex(captured) + 1;
+        }
+
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            piece = ChessPiece.of(piece.getTeamColor(), promotion);
+        }
+
+        setPiece(from, null);
+        setPiece(to, piece);
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = type == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16 ? (from + to) >>> 1 : -1;
+        halfmoveClock = type == ChessPiece.PieceType.PAWN || captured != null ? 0 : halfmoveClock + 1;
+        return undo;
+    }
+
+    /**
+     * Takes back a move applied with {@link #makeMove}. Moves must be unmade
+     * in the reverse order they were made.
+     *
+     * @param move the move to take back
+     * @param undo the record returned when the move was made
+     */
+    public void unmakeMove(int move, long undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = getPiece(to);
+
+        if (Move.isPromotion(move)) {
+            piece = ChessPiece.of(piece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+
+        int captured = (int) (undo & 0xF);
+        ChessPiece capturedPiece = captured == 0 ? null : ChessPiece.of(captured - 1);
+        if ((undo & UNDO_EN_PASSANT_CAPTURE) != 0) {
+            setPiece(to, null);
+            setPiece((from & ~7) | (to & 7), capturedPiece);
+        } else {
+            setPiece(to, capturedPiece);
+        }
+        setPiece(from, piece);
+
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, true);
+        }
+
+        castlingRights = (int) (undo >>> UNDO_CASTLING_SHIFT) & 0xF;
+        enPassantSquare = (int) ((undo >>> UNDO_EN_PASSANT_SHIFT) & 0x7F) - 1;
+        halfmoveClock = (int) (undo >>> UNDO_HALFMOVE_SHIFT) & 0xFFFF;
+    }
+
+    /**
+     * Moves the rook that castles alongside a king moving from one square to
+     * another, or puts it back in the corner when undoing.
+     */
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean undo) {
+        int corner = kingTo > kingFrom ? kingFrom + 3 : kingFrom - 4;
+        int castled = (kingFrom + kingTo) >>> 1;
+        int rookFrom = undo ? castled : corner;
+        int rookTo = undo ? corner : castled;
+        setPiece(rookTo, getPiece(rookFrom));
+        setPiece(rookFrom, null);
+    }
+
+    /**
+     * @return the set of squares holding pieces of the given color and type
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ensureIndexed();
+        return pieceSets[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return the set of squares holding pieces of the given color
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        ensureIndexed();
+        return colorSets[color.ordinal()];
+    }
+
+    /**
+     * @return the set of squares holding any piece
+     */
+    public long getOccupancy() {
+        ensureIndexed();
+        return occupied;
+    }
+
+    /**
+     * Determines whether any piece of one color attacks a square, probing
+     * outward from the square and returning at the first attacker found.
+     *
+     * @param square  the 0-63 square being attacked
+     * @param byColor the color of the attacking pieces
+     * @return True if at least one piece of byColor attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(square, getOccupancy(), byColor);
+    }
+
+    /**
+     * Determines whether any piece of one color attacks a square, treating
+     * only the given squares as blockers for sliding pieces.
+     *
+     * @param square    the 0-63 square being attacked
+     * @param occupancy the occupied squares to use for sliding piece blockers
+     * @param byColor   the color of the attacking pieces
+     * @return True if at least one piece of byColor attacks the square
+     */
+    public boolean isSquareAttacked(int square, long occupancy, ChessGame.TeamColor byColor) {
+        ensureIndexed();
+        int base = byColor.ordinal() * 6;
+        ChessGame.TeamColor defender = byColor == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+        // Cheapest probes first: the fixed patterns are single table loads
+        if ((Bitboards.pawnAttacks(defender, square) & pieceSets[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0
+                || (Bitboards.knightAttacks(square) & pieceSets[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (Bitboards.kingAttacks(square) & pieceSets[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+
+        long queens = pieceSets[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooks = pieceSets[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        if (rooks != 0 && (MagicBitboards.rookAttacks(square, occupancy) & rooks) != 0) {
+            return true;
+        }
+        long bishops = pieceSets[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return bishops != 0 && (MagicBitboards.bishopAttacks(square, occupancy) & bishops) != 0;
+    }
+
+    /**
+     * Finds every piece of one color that attacks a square, by looking outward
+     * from the square with each piece type's attack pattern.
+     *
+     * @param square    the 0-63 square being attacked
+     * @param occupancy the occupied squares to use for sliding piece blockers
+     *                  (callers may remove pieces, e.g. a king stepping along a ray)
+     * @param byColor   the color of the attacking pieces
+     * @return the set of squares holding attackers
+     */
+    public long attackersTo(int square, long occupancy, ChessGame.TeamColor byColor) {
+        ensureIndexed();
+        int base = byColor.ordinal() * 6;
+        ChessGame.TeamColor defender = byColor == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = pieceSets[base + ChessPiece.PieceType.QUEEN.ordinal()];
+
+        return (Bitboards.knightAttacks(square) & pieceSets[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.kingAttacks(square) & pieceSets[base + ChessPiece.PieceType.KING.ordinal()])
+                // A pawn of byColor attacks square if a defender's pawn on square would attack it back
+                | (Bitboards.pawnAttacks(defender, square) & pieceSets[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (MagicBitboards.rookAttacks(square, occupancy)
+                        & (pieceSets[base + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (MagicBitboards.bishopAttacks(square, occupancy)
+                        & (pieceSets[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * @return a 0-11 index identifying a color and piece type pair
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    private static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(piece.getTeamColor(), piece.getPieceType());
+    }
+
+    /**
+     * Rebuilds the bitboards if squares has been replaced since they were last
+     * built, which happens when a board is deserialized.
+     */
+    private void ensureIndexed() {
+        if (indexedSquares == squares) {
+            return;
+        }
+        if (pieceSets == null) {
+            pieceSets = new long[12];
+            colorSets = new long[2];
+            kingSquares = new int[2];
+        }
+        Arrays.fill(pieceSets, 0L);
+        Arrays.fill(colorSets, 0L);
+        occupied = 0L;
+        pieceKey = 0L;
+
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece != null) {
+                long bit = 1L << square;
+                int index = pieceIndex(piece);
+                // Swap deserialized copies for the shared instances
+                squares[7 - (square >>> 3)][square & 7] = ChessPiece.of(index);
+                pieceSets[index] |= bit;
+                colorSets[piece.getTeamColor().ordinal()] |= bit;
+                occupied |= bit;
+                pieceKey ^= Zobrist.piece(index, square);
+            }
+        }
+        updateKingSquare(ChessGame.TeamColor.WHITE);
+        updateKingSquare(ChessGame.TeamColor.BLACK);
+        indexedSquares = squares;
+
+        // Saves without castling rights also predate the move history, so a right can only be proven
+        // on a board nobody has moved on yet
+        if (castlingRights == RIGHTS_NOT_SAVED) {
+            castlingRights = isStartPosition() ? GameState.ALL_CASTLING : 0;
+        }
+    }
+
+    private boolean isStartPosition() {
+        ChessBoard start = new ChessBoard();
+        start.resetBoard();
+        return Arrays.deepEquals(squares, start.squares);
     }
 
     /**
@@ -90,28 +551,36 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        squares[0][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        squares[0][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        squares[0][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        squares[0][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        squares[0][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        squares[0][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        squares[0][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        squares[0][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-
-        squares[7][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        squares[7][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        squares[7][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        squares[7][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        squares[7][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        squares[7][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        squares[7][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        squares[7][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        squares[0][0] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        squares[0][1] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        squares[0][2] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        squares[0][3] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        squares[0][4] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        squares[0][5] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        squares[0][6] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        squares[0][7] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+
+        squares[7][0] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        squares[7][1] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        squares[7][2] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        squares[7][3] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        squares[7][4] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        squares[7][5] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        squares[7][6] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        squares[7][7] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
 
         for(int col=0; col<squares.length; col++){
-            squares[1][col] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-            squares[6][col] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            squares[1][col] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            squares[6][col] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         }
+
+        castlingRights = GameState.ALL_CASTLING;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+
+        // Rows 0, 1, 6 and 7 were written directly, so rebuild the bitboards from scratch
+        indexedSquares = null;
+        ensureIndexed();
     }
 
     @Override
@@ -120,12 +589,16 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
+        // Different keys prove the placements differ; equal keys still need the full comparison
+        if (zobristKey() != that.zobristKey()) {
+            return false;
+        }
         return Objects.deepEquals(squares, that.squares);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(zobristKey());
     }
 
     @Override
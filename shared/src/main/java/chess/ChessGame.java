@@ -2,6 +2,7 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -12,6 +13,17 @@ import java.util.Collection;
 public class ChessGame {
     ChessBoard board;
     private TeamColor currentTeamTurn;
+    // Starts at 1 and goes up after each black move
+    private int fullmoveNumber = 1;
+    // Positions left since the last capture or pawn move, for repetition draws
+    private PositionHistory history = new PositionHistory();
+    // Moves played since the position was last set up, as packed ints (see Move)
+    private MoveList moves = new MoveList(16);
+    // Last status() result and the position key it was computed for, swapped as one reference. Not serialized.
+    private transient CachedStatus cachedStatus;
+
+    private record CachedStatus(long key, GameStatus status) {
+    }
 
     public ChessGame() {
         board = new ChessBoard();
@@ -33,6 +45,8 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         currentTeamTurn = team;
+        history.clear();
+        moves.clear();
     }
 
     /**
@@ -51,45 +65,16 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        //array to store valid Moves
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        //Get valid moves for the given piece, not including specific chess rules
+        //Get valid moves for the given piece, including check and pin rules
         ChessPiece piece = board.getPiece(startPosition);
 
         if (piece == null){
-            return validMoves;
-        }
-
-        //don't accept moves for a fully pinned piece
-        if (isPieceCompletelyPinned(startPosition, board)) {
-            return validMoves; // Return empty move set
+            return new ArrayList<>();
         }
 
-        // Get possible moves for the piece
-        Collection<ChessMove> pieceMoves = piece.pieceMoves(board, startPosition);
-
-        TeamColor pieceColor = piece.getTeamColor();
-
-        //filter valid moves from pieceMoves
-        for (ChessMove move : pieceMoves) {
-
-
-//            System.err.println("=== DEBUG: Evaluating move ===");
-//            System.err.println("Piece: " + piece.getPieceType() + " at " + startPosition);
-//            System.err.println("Testing move: " + move);
-//            System.err.println("TeamColor for check: " + pieceColor);
-
-            //skip move if move puts currentTeamTurn king in check
-//            if (doesMoveLeaveKingInCheck(move, board, currentTeamTurn)) {
-            if (doesMoveLeaveKingInCheck(move, board, piece.getTeamColor())){
-
-//                System.err.println("!!! Move leaves king in check: " + move + " — skipping");
-                continue;
-            }
-            validMoves.add(move);
-        }
-        return validMoves;
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, piece.getTeamColor(), Bitboards.square(startPosition), moves);
+        return moves.toChessMoves();
     }
 
     /**
@@ -100,7 +85,6 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPosition position = move.getStartPosition();
-        ChessPosition newPosition = move.getEndPosition();
         ChessPiece piece = board.getPiece(position);
 
         // Make sure a piece exists at the start position
@@ -108,31 +92,31 @@ public class ChessGame {
             throw new InvalidMoveException("No valid piece to move.");
         }
 
-        Collection<ChessMove> validMoves = validMoves(position);
+        MoveList legalMoves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, currentTeamTurn, Bitboards.square(position), legalMoves);
 
-        //Confirm that move is contained in validMoves
-        if (!validMoves.contains(move)) {
+        //Confirm that move is one of the legal moves
+        int legalMove = legalMoves.find(Move.fromChessMove(move));
+        if (legalMove == Move.NONE) {
             throw new InvalidMoveException("Invalid Move, please try again");
         }
 
-        //go through all validMoves that the piece can take
-        for (ChessMove validMove : validMoves) {
-            //find the valid move that matches the move parameter
-            if (validMove.getEndPosition().equals(newPosition)) {
-                //move and promote pawn if move is a promotion piece
-                if (move.getPromotionPiece() != null) {
-                    ChessPiece promotedPiece = new ChessPiece(currentTeamTurn, move.getPromotionPiece());
-                    board.addPiece(position, null); // Remove the pawn
-                    board.addPiece(newPosition, promotedPiece); // Place the new piece
-                }
-                //move piece (normal, no promotion)
-                else {
-                    board.addPiece(position, null);
-                    board.addPiece(newPosition, piece);
-                }
-            }
+        //apply the move in place (handles promotion, castling and en passant)
+        long previousKey = zobristKey();
+        board.makeMove(legalMove);
+        moves.add(legalMove);
+
+        //positions before a capture or pawn move can never come back
+        if (board.getHalfmoveClock() == 0) {
+            history.clear();
+        } else {
+            history.push(previousKey);
         }
+
         //change player turns
+        if (currentTeamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
         currentTeamTurn = getOtherTeamColor(currentTeamTurn);
     }
 
@@ -165,41 +149,15 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     private boolean checkForCheck(TeamColor teamColor, ChessBoard board) {
-        // Define variables
-        ChessPosition kingPosition = null;
-        TeamColor enemyTeamColor = getOtherTeamColor(teamColor);
-
-        // Collection to store all valid enemy attack positions
-        Collection<ChessPosition> enemyEndPositions = new ArrayList<>();
-
-        // Iterate through the board, find enemy pieces, and track their valid moves
-        for (int row = 0; row < board.squares.length; row++) {
-            for (int col = 0; col < board.squares.length; col++) {
-                ChessPiece currentPiece = board.squares[row][col];
-                ChessPosition position = board.toChessFormat(new ChessPosition(row, col));
-
-                // Skip empty squares
-                if (currentPiece == null){
-                    continue;
-                }
-
-                // If currentPiece is an enemy, add its moves
-                if (currentPiece.getTeamColor() == enemyTeamColor) {
-                    Collection<ChessMove> enemyMoves = currentPiece.pieceMoves(board, position);
-                    for (ChessMove enemyMove : enemyMoves) {
-                        enemyEndPositions.add(enemyMove.getEndPosition());
-                    }
-                }
-
-                // Find our team's King position
-                if (currentPiece.getPieceType() == ChessPiece.PieceType.KING && currentPiece.getTeamColor() == teamColor) {
-                    kingPosition = position;
-                }
-            }
+        int kingSquare = board.getKingSquare(teamColor);
+
+        // No king on the board means nothing to attack
+        if (kingSquare < 0) {
+            return false;
         }
 
-        // Check if the king's position is under attack
-        return kingPosition != null && enemyEndPositions.contains(kingPosition);
+        // Probe outward from the king's square for any enemy attacker
+        return board.isSquareAttacked(kingSquare, getOtherTeamColor(teamColor));
     }
 
 
@@ -211,48 +169,9 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false; // Not checkmate if not in check
-        }
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece == null || piece.getTeamColor() != teamColor) {
-                    continue; // Skip empty squares and enemy pieces
-                }
-
-                for (ChessMove move : validMoves(position)) {
-                    if (canEscapeCheck(move, teamColor)) {
-                        return false; // If any move escapes check, it's not checkmate
-                    }
-                }
-            }
-        }
-
-        return true; // No valid move to escape check means checkmate
-    }
-
-    /**
-     * Checks if a move removes the check condition.
-     *
-     * @param move The move to test
-     * @param teamColor The team being checked
-     * @return True if the move removes check, otherwise false
-     */
-    private boolean canEscapeCheck(ChessMove move, TeamColor teamColor) {
-        ChessGame tempGame = createTempGame(board);
-        try {
-            tempGame.makeMove(move);
-            return !tempGame.isInCheck(teamColor); // If move removes check, return true
-        } catch (InvalidMoveException e) {
-            return false; // Ignore invalid moves
-        }
+        return status(teamColor).isCheckmate();
     }
 
-
     /**
      * Determines if the given team is in stalemate, which here is defined as having
      * no valid moves
@@ -261,40 +180,51 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        // If the king is in check, it's NOT stalemate
-        if (isInCheck(teamColor)) {
-            return false;
-        }
+        return status(teamColor).isStalemate();
+    }
+
+    /**
+     * Computes check, checkmate and stalemate for the team whose turn it is
+     *
+     * @return the status of the side to move
+     */
+    public GameStatus status() {
+        return status(currentTeamTurn);
+    }
 
-        // Iterate through all pieces of the current team
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                // Skip empty squares and enemy pieces
-                if (piece == null || piece.getTeamColor() != teamColor) {
-                    continue;
-                }
-
-                // Get all valid moves for this piece
-                Collection<ChessMove> moves = validMoves(position);
-
-                // Check if any move is actually legal
-                for (ChessMove move : moves) {
-                    if (!doesMoveLeaveKingInCheck(move, board, piece.getTeamColor())) {
-                        return false; // Found a valid move, so it's NOT stalemate
-                    }
-                }
+    /**
+     * Computes check, checkmate and stalemate for a team with one legal move
+     * generation pass. The result is reused until the position changes.
+     *
+     * @param teamColor which team to compute the status for
+     * @return the status of that team
+     */
+    public GameStatus status(TeamColor teamColor) {
+        // Keyed by position rather than cleared on makeMove, since the board can also be edited directly
+        long key = board.zobristKey() ^ board.stateKey()
+                ^ (teamColor == TeamColor.BLACK ? Zobrist.blackToMove() : 0L);
+        int repetitions = getRepetitionCount();
+        int halfmoveClock = board.getHalfmoveClock();
+        CachedStatus cached = cachedStatus;
+        GameStatus status;
+        if (cached != null && cached.key() == key && cached.status().team() == teamColor) {
+            status = cached.status();
+            if (status.repetitions() == repetitions && status.halfmoveClock() == halfmoveClock) {
+                return status;
             }
+            // Same position reached by another route: only the cheap counters changed
+            status = new GameStatus(teamColor, status.inCheck(), status.legalMoves(), repetitions, halfmoveClock);
+        } else {
+            MoveList moves = new MoveList();
+            LegalMoveGenerator.generateMoves(board, teamColor, moves);
+            status = new GameStatus(teamColor, checkForCheck(teamColor, board), moves.size(),
+                    repetitions, halfmoveClock);
         }
 
-        // If no valid move exists, it's stalemate
-        return true;
+        cachedStatus = new CachedStatus(key, status);
+        return status;
     }
 
-
-
     /**
      * Sets this game's chessboard with a given board
      *
@@ -302,6 +232,8 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        history.clear();
+        moves.clear();
     }
 
     /**
@@ -315,44 +247,94 @@ public class ChessGame {
 
 
     /**
-     * Input a team and get the other team back
-     * @param currentTeamTurn current team turn
-     * @return other team
+     * The Zobrist key of the whole game position: the board's placement and
+     * castling/en passant keys combined with the side to move. Suitable for
+     * position caches and repetition checks.
+     *
+     * @return the 64-bit key of this position
      */
-    public TeamColor getOtherTeamColor(TeamColor currentTeamTurn){
-        //change team turn
-        return (currentTeamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    public long zobristKey() {
+        long key = board.zobristKey() ^ board.stateKey();
+        return currentTeamTurn == TeamColor.BLACK ? key ^ Zobrist.blackToMove() : key;
     }
 
     /**
-     * Determines if king is left in check after a move is performed
-     * @param move chess move in question
-     * @param board 8x8 grid of chess pieces
-     * @param teamColor current team
-     * @return boolean
+     * @return the move number, starting at 1 and increased after each black move
      */
-    private boolean doesMoveLeaveKingInCheck(ChessMove move, ChessBoard board, TeamColor teamColor) {
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
 
-//        System.err.println("\n=== DEBUG: Simulating move ===");
-//        System.err.println("Move: " + move);
-//        System.err.println("Checking if " + teamColor + " is in check after move");
+    /**
+     * Gets the rule state not visible on the board: castling rights in
+     * effect, en passant file and the move clocks
+     *
+     * @return an immutable snapshot of that state
+     */
+    public GameState getState() {
+        int enPassant = board.getEnPassantSquare();
+        return new GameState(board.getCastlingRights(), enPassant < 0 ? GameState.NO_EN_PASSANT : enPassant & 7,
+                board.getHalfmoveClock(), getFullmoveNumber());
+    }
 
-        ChessBoard tempBoard = board.copy();
-        ChessPosition position = move.getStartPosition();
-        ChessPosition newPosition = move.getEndPosition();
-        ChessPiece piece = tempBoard.getPiece(move.getStartPosition());
+    /**
+     * Replaces the rule state. The en passant file is placed on the rank the
+     * side to move would capture onto, so set the team turn first.
+     *
+     * @param state the state to apply
+     */
+    public void setState(GameState state) {
+        board.setCastlingRights(state.castlingRights());
+        int file = state.enPassantFile();
+        board.setEnPassantSquare(file == GameState.NO_EN_PASSANT ? -1
+                : Bitboards.square(currentTeamTurn == TeamColor.WHITE ? 6 : 3, file + 1));
+        board.setHalfmoveClock(state.halfmoveClock());
+        fullmoveNumber = state.fullmoveNumber();
+        history.clear();
+        moves.clear();
+    }
 
-        // Simulate the move on the temporary board
-        tempBoard.addPiece(position, null); // remove old piece location
-        tempBoard.addPiece(newPosition, piece); // add new piece location
+    /**
+     * @return the positions this game has left since its last capture or pawn
+     * move, for repetition checks
+     */
+    public PositionHistory getHistory() {
+        return history;
+    }
 
-//        System.err.println("Board after move");
-//        System.err.println(teamColor + " is in check? " + isInCheck(teamColor, tempBoard));
+    /**
+     * Gets the moves played since the game started, or since its position was
+     * last set by hand with setBoard, setTeamTurn or setState
+     *
+     * @return the moves in the order they were played
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> played = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            played.add(Move.toChessMove(moves.get(i)));
+        }
+        return played;
+    }
 
-        boolean inCheck = isInCheck(teamColor, tempBoard);
-//        System.err.println("Result: " + (inCheck ? "IN CHECK ❌" : "safe ✅"));
+    /**
+     * Counts how many times the current position (same placement, side to
+     * move, castling rights and en passant chance) has occurred since the
+     * last capture or pawn move, including now.
+     *
+     * @return 1 for a new position, 3 or more for a threefold repetition
+     */
+    public int getRepetitionCount() {
+        return history.count(zobristKey()) + 1;
+    }
 
-        return isInCheck(teamColor, tempBoard);
+    /**
+     * Input a team and get the other team back
+     * @param currentTeamTurn current team turn
+     * @return other team
+     */
+    public TeamColor getOtherTeamColor(TeamColor currentTeamTurn){
+        //change team turn
+        return (currentTeamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -376,47 +358,11 @@ public class ChessGame {
      * Method to find a King within a given 8x8 chessboard
      * @param board 8x8 array of chess pieces
      * @param teamColor which team's King to find
-     * @return the King's position
+     * @return the King's position, or null if the team has no King
      */
     public ChessPosition findKing(ChessBoard board, TeamColor teamColor){
-        ChessPosition kingPosition = null;
-
-        //iterate through the board to find the king location
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = board.squares[row][col];
-
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING &&
-                        piece.getTeamColor() == teamColor) {
-                    kingPosition = new ChessPosition(row, col);
-                }
-            }
-        }
-        return kingPosition;
-    }
-
-    /**
-     * determines whether a piece is completely pinned and cannot move
-     * @param position starting position of piece
-     * @param board current ChessBoard
-     * @return a boolean value
-     */
-    private boolean isPieceCompletelyPinned(ChessPosition position, ChessBoard board) {
-        ChessPiece piece = board.getPiece(position);
-        ChessPosition kingPosition = findKing(board, piece.getTeamColor());
-
-        // Get all possible moves for this piece
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, position);
-
-        // Check if any move does not leave the king in check
-        for (ChessMove move : possibleMoves) {
-            // Found at least one valid move, so it's not completely pinned
-            if (!doesMoveLeaveKingInCheck(move, board, piece.getTeamColor())) {
-                return false;
-            }
-        }
-
-        // If no valid moves exist, the piece is completely pinned
-        return true;
+        //the board tracks king squares as pieces move, so no scan is needed
+        int kingSquare = board.getKingSquare(teamColor);
+        return kingSquare < 0 ? null : Bitboards.position(kingSquare);
     }
 }
\ No newline at end of file
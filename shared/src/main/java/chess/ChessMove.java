@@ -9,9 +9,13 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessMove {
-    private ChessPosition startPosition;
-    private ChessPosition endPosition;
-    private ChessPiece.PieceType promotionPiece;
+    // One slot per from square, to square and promotion (none + 4 piece types), filled on first use.
+    // The fields are final, so a move published through a racy write is still seen fully built.
+    private static final ChessMove[] POOL = new ChessMove[64 * 64 * 5];
+
+    private final ChessPosition startPosition;
+    private final ChessPosition endPosition;
+    private final ChessPiece.PieceType promotionPiece;
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
@@ -20,6 +24,42 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Returns the shared instance for an on-board move, or a new one if either
+     * position is off the board.
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (!onBoard(startPosition) || !onBoard(endPosition)) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        return of(Bitboards.square(startPosition), Bitboards.square(endPosition), promotionPiece);
+    }
+
+    /**
+     * @return the shared instance for a move between two 0-63 square indexes
+     */
+    static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        // Slot 0 is no promotion, 1-4 are QUEEN, BISHOP, KNIGHT and ROOK by ordinal
+        int promotion = promotionPiece == null ? 0 : promotionPiece.ordinal();
+        if (promotionPiece == ChessPiece.PieceType.KING || promotionPiece == ChessPiece.PieceType.PAWN) {
+            return new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+        }
+
+        int slot = ((from << 6) | to) * 5 + promotion;
+        ChessMove move = POOL[slot];
+        if (move == null) {
+            move = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+            POOL[slot] = move;
+        }
+        return move;
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        return position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -46,6 +86,9 @@ public class ChessMove {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -57,7 +100,10 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        // Same value as Objects.hash(startPosition, endPosition, promotionPiece), without the varargs array
+        int result = 31 + Objects.hashCode(startPosition);
+        result = 31 * result + Objects.hashCode(endPosition);
+        return 31 * result + Objects.hashCode(promotionPiece);
     }
 
     @Override
@@ -10,14 +10,50 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPiece {
-    private ChessGame.TeamColor pieceColor;
-    private ChessPiece.PieceType type;
+    // Calculators are stateless, so one shared instance per type (indexed by PieceType ordinal)
+    private static final PieceMovesCalculator[] CALCULATORS = {
+            new KingMovesCalculator(),
+            new QueenMovesCalculator(),
+            new BishopMovesCalculator(),
+            new KnightMovesCalculator(),
+            new RookMovesCalculator(),
+            new PawnMovesCalculator()
+    };
+
+    // Canonical instances, indexed by ChessBoard.pieceIndex(color, type)
+    private static final ChessPiece[] INTERNED = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                INTERNED[ChessBoard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final ChessGame.TeamColor pieceColor;
+    private final ChessPiece.PieceType type;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Returns the shared instance for a color and type. Pieces are immutable,
+     * so this can be used anywhere a new ChessPiece would be.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return INTERNED[ChessBoard.pieceIndex(pieceColor, type)];
+    }
+
+    /**
+     * @return the shared instance for a ChessBoard piece index
+     */
+    static ChessPiece of(int pieceIndex) {
+        return INTERNED[pieceIndex];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -52,40 +88,22 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        PieceMovesCalculator calculator;
         ChessPiece piece = board.getPiece(myPosition);
+        return getCalculator(piece.getPieceType()).calculateMoves(myPosition, board);
+    }
 
-        switch(piece.getPieceType()){
-            case QUEEN:
-                calculator = new QueenMovesCalculator();
-                break;
-            case ROOK:
-                calculator = new RookMovesCalculator();
-                break;
-            case BISHOP:
-                calculator = new BishopMovesCalculator();
-                break;
-            case KNIGHT:
-                calculator = new KnightMovesCalculator();
-                break;
-            case KING:
-                calculator = new KingMovesCalculator();
-                break;
-            case PAWN:
-                calculator = new PawnMovesCalculator();
-                break;
-            default:
-                throw new RuntimeException("Not a valid piece type");
-        }
-
-        Collection<ChessMove> validMoves = calculator.calculateMoves(myPosition, board);
-
-
-        return validMoves;
+    /**
+     * @return the shared move calculator for the given piece type
+     */
+    public static PieceMovesCalculator getCalculator(PieceType type) {
+        return CALCULATORS[type.ordinal()];
     }
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -95,7 +113,8 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        // Same value as Objects.hash(pieceColor, type), without the varargs array
+        return 31 * (31 + Objects.hashCode(pieceColor)) + Objects.hashCode(type);
     }
 
     @Override
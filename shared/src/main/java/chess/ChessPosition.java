@@ -9,14 +9,41 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
-    private int row;
-    private int col;
+    // Canonical instances for the 64 on-board squares, indexed by Bitboards.square(row, col)
+    private static final ChessPosition[] INTERNED = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            INTERNED[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
+    private final int row;
+    private final int col;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Returns the shared instance for an on-board position, or a new one for
+     * rows and columns outside 1-8 (such as internal array coordinates).
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return INTERNED[Bitboards.square(row, col)];
+    }
+
+    /**
+     * @return the shared instance for a 0-63 square index
+     */
+    static ChessPosition of(int square) {
+        return INTERNED[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -35,6 +62,9 @@ public class ChessPosition {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -44,7 +74,8 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        // Same value as Objects.hash(row, col), without the varargs array
+        return 31 * (31 + row) + col;
     }
 
     @Override
@@ -0,0 +1,182 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN).
+ * <p>
+ * All six fields are read; the castling, en passant and clock fields may be
+ * omitted, in which case no castling, no en passant square and clocks of
+ * 0 and 1 are assumed.
+ */
+public final class Fen {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * Builds a game from a FEN string
+     *
+     * @param fen the position to load
+     * @return a new game set up in that position
+     * @throws IllegalArgumentException if the placement or side to move field is malformed
+     */
+    public static ChessGame toGame(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN needs at least placement and side to move: " + fen);
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(toBoard(fields[0]));
+        game.setTeamTurn(switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move in FEN: " + fen);
+        });
+
+        try {
+            int castling = fields.length > 2 ? toCastlingRights(fields[2]) : 0;
+            int enPassantFile = fields.length > 3 && !fields[3].equals("-")
+                    ? toSquare(fields[3]) & 7 : GameState.NO_EN_PASSANT;
+            int halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+            int fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+            game.setState(new GameState(castling, enPassantFile, halfmoveClock, fullmoveNumber));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad move clocks in FEN: " + fen, e);
+        }
+        return game;
+    }
+
+    /**
+     * @return the FEN string for a game's position
+     */
+    public static String fromGame(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        GameState state = game.getState();
+        int enPassant = board.getEnPassantSquare();
+        return fromBoard(board)
+                + (game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ")
+                + fromCastlingRights(state.castlingRights()) + " "
+                + (enPassant < 0 ? "-" : Bitboards.position(enPassant).toString()) + " "
+                + state.halfmoveClock() + " " + state.fullmoveNumber();
+    }
+
+    private static int toCastlingRights(String field) {
+        int rights = 0;
+        if (field.equals("-")) {
+            return rights;
+        }
+        for (char c : field.toCharArray()) {
+            rights |= switch (c) {
+                case 'K' -> GameState.WHITE_KINGSIDE;
+                case 'Q' -> GameState.WHITE_QUEENSIDE;
+                case 'k' -> GameState.BLACK_KINGSIDE;
+                case 'q' -> GameState.BLACK_QUEENSIDE;
+                default -> throw new IllegalArgumentException("Bad castling rights in FEN: " + field);
+            };
+        }
+        return rights;
+    }
+
+    private static String fromCastlingRights(int rights) {
+        StringBuilder field = new StringBuilder();
+        if ((rights & GameState.WHITE_KINGSIDE) != 0) {
+            field.append('K');
+        }
+        if ((rights & GameState.WHITE_QUEENSIDE) != 0) {
+            field.append('Q');
+        }
+        if ((rights & GameState.BLACK_KINGSIDE) != 0) {
+            field.append('k');
+        }
+        if ((rights & GameState.BLACK_QUEENSIDE) != 0) {
+            field.append('q');
+        }
+        return field.isEmpty() ? "-" : field.toString();
+    }
+
+    private static int toSquare(String name) {
+        if (name.length() != 2 || name.charAt(0) < 'a' || name.charAt(0) > 'h'
+                || name.charAt(1) < '1' || name.charAt(1) > '8') {
+            throw new IllegalArgumentException("Bad square in FEN: " + name);
+        }
+        return Bitboards.square(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+
+    private static ChessBoard toBoard(String placement) {
+        ChessBoard board = new ChessBoard();
+        String[] ranks = placement.split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN placement needs 8 ranks: " + placement);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                if (col > 8) {
+                    throw new IllegalArgumentException("FEN rank too long: " + ranks[i]);
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(c)
+                        ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, typeFor(c)));
+                col++;
+            }
+        }
+        return board;
+    }
+
+    private static String fromBoard(ChessBoard board) {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char c = letterFor(piece.getPieceType());
+                fen.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        return fen.toString();
+    }
+
+    private static ChessPiece.PieceType typeFor(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Bad piece letter in FEN: " + c);
+        };
+    }
+
+    private static char letterFor(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package chess;
+
+/**
+ * The rule state of a game that is not visible in its piece placement:
+ * castling rights, the en passant file and the move clocks.
+ * <p>
+ * Together with the board and the side to move this fully describes a
+ * position, and it packs into a single long for compact storage.
+ *
+ * @param castlingRights bit mask of {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE},
+ *                       {@link #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}
+ * @param enPassantFile  0-7 file a pawn may be captured en passant on (0 = a-file),
+ *                       or {@link #NO_EN_PASSANT}
+ * @param halfmoveClock  plies since the last capture or pawn move
+ * @param fullmoveNumber the move number, starting at 1 and increased after black moves
+ */
+public record GameState(int castlingRights, int enPassantFile, int halfmoveClock, int fullmoveNumber) {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+    public static final int NO_EN_PASSANT = -1;
+
+    /**
+     * The state of a new game
+     */
+    public static final GameState INITIAL = new GameState(ALL_CASTLING, NO_EN_PASSANT, 0, 1);
+
+    public GameState {
+        if (castlingRights < 0 || castlingRights > ALL_CASTLING) {
+            throw new IllegalArgumentException("Bad castling rights: " + castlingRights);
+        }
+        if (enPassantFile < NO_EN_PASSANT || enPassantFile > 7) {
+            throw new IllegalArgumentException("Bad en passant file: " + enPassantFile);
+        }
+        if (halfmoveClock < 0 || halfmoveClock > 0xFFFF || fullmoveNumber < 1) {
+            throw new IllegalArgumentException("Bad move clocks: " + halfmoveClock + ", " + fullmoveNumber);
+        }
+    }
+
+    /**
+     * @param right one of the castling right constants
+     * @return true if that right is held
+     */
+    public boolean canCastle(int right) {
+        return (castlingRights & right) != 0;
+    }
+
+    /**
+     * Packs the state into one long: castling rights in bits 0-3, en passant
+     * file + 1 in bits 4-7, the halfmove clock in bits 8-23 and the fullmove
+     * number from bit 24 up.
+     */
+    public long pack() {
+        return castlingRights
+                | (long) (enPassantFile + 1) << 4
+                | (long) halfmoveClock << 8
+                | (long) fullmoveNumber << 24;
+    }
+
+    /**
+     * @return the state packed by {@link #pack()}
+     */
+    public static GameState unpack(long packed) {
+        return new GameState((int) (packed & 0xF), (int) ((packed >>> 4) & 0xF) - 1,
+                (int) ((packed >>> 8) & 0xFFFF), (int) (packed >>> 24));
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+/**
+ * The check, checkmate, stalemate and draw state of one side, computed in a
+ * single legal move generation pass by {@link ChessGame#status(ChessGame.TeamColor)}.
+ *
+ * @param team          the side this status describes
+ * @param inCheck       whether that side's king is attacked
+ * @param legalMoves    how many legal moves that side has
+ * @param repetitions   how many times the current position has occurred, including now
+ * @param halfmoveClock plies since the last capture or pawn move
+ */
+public record GameStatus(ChessGame.TeamColor team, boolean inCheck, int legalMoves, int repetitions,
+                         int halfmoveClock) {
+
+    /**
+     * @return true if the side is in check and has no legal moves
+     */
+    public boolean isCheckmate() {
+        return inCheck && legalMoves == 0;
+    }
+
+    /**
+     * @return true if the side is not in check but has no legal moves
+     */
+    public boolean isStalemate() {
+        return !inCheck && legalMoves == 0;
+    }
+
+    /**
+     * @return true if the position has occurred three or more times
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitions >= 3;
+    }
+
+    /**
+     * @return true if fifty moves by each side have passed without a capture
+     * or pawn move, unless the last of them delivered checkmate
+     */
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100 && !isCheckmate();
+    }
+
+    /**
+     * @return true if the game is drawn by stalemate, repetition or the fifty-move rule
+     */
+    public boolean isDraw() {
+        return isStalemate() || isThreefoldRepetition() || isFiftyMoveRule();
+    }
+
+    /**
+     * @return true if the game has ended by checkmate or a draw
+     */
+    public boolean isGameOver() {
+        return legalMoves == 0 || isDraw();
+    }
+}
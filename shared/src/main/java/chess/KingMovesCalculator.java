@@ -2,11 +2,8 @@ package chess;
 
 public class KingMovesCalculator extends AbstractFixedMovesCalculator {
     @Override
-    protected int[][] getOffsets() {
+    protected long getAttacks(int square) {
         // The king can move one square in any direction.
-        return new int[][] {
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
+        return Bitboards.kingAttacks(square);
     }
 }
@@ -0,0 +1,262 @@
+package chess;
+
+/**
+ * Generates only legal moves, without simulating each candidate.
+ * <p>
+ * The pieces giving check and the pieces pinned to their own king are found
+ * once per call. Every other move is then legal if it stays inside a mask:
+ * when in check a non-king move must capture the checker or block its ray,
+ * a pinned piece must stay on the line through its king, and in double check
+ * only the king may move. King moves are legal when the target square is not
+ * attacked once the king has left its current square.
+ * <p>
+ * Castling and en passant are only generated here, not by the per-piece
+ * calculators. Castling is checked square by square along the king's path;
+ * en passant is rare and can expose the king along the rank of both pawns,
+ * so each candidate is simply made and tested.
+ */
+public final class LegalMoveGenerator {
+
+    private LegalMoveGenerator() {
+    }
+
+    /**
+     * Appends every legal move for one side to moves.
+     *
+     * @param board the position to generate moves for
+     * @param side  the side to move
+     * @param moves the list to append to
+     */
+    public static void generateMoves(ChessBoard board, ChessGame.TeamColor side, MoveList moves) {
+        generate(board, side, board.getOccupancy(side), MoveType.ALL, moves);
+    }
+
+    /**
+     * Appends the legal moves of one {@link MoveType} for one side to moves.
+     * Generating captures and quiet moves separately gives every legal move
+     * exactly once.
+     *
+     * @param board the position to generate moves for
+     * @param side  the side to move
+     * @param type  which moves to generate
+     * @param moves the list to append to
+     */
+    public static void generateMoves(ChessBoard board, ChessGame.TeamColor side, MoveType type, MoveList moves) {
+        generate(board, side, board.getOccupancy(side), type, moves);
+    }
+
+    /**
+     * Appends the legal moves of the piece on one square to moves. Nothing is
+     * added if the square is empty.
+     *
+     * @param board  the position to generate moves for
+     * @param side   the side the piece belongs to
+     * @param square the 0-63 square of the piece to move
+     * @param moves  the list to append to
+     */
+    public static void generateMoves(ChessBoard board, ChessGame.TeamColor side, int square, MoveList moves) {
+        generate(board, side, Bitboards.bit(square) & board.getOccupancy(side), MoveType.ALL, moves);
+    }
+
+    private static void generate(ChessBoard board, ChessGame.TeamColor side, long fromMask, MoveType type,
+                                 MoveList moves) {
+        int king = board.getKingSquare(side);
+
+        // Hand-built boards may have no king; then nothing can be in check or pinned
+        if (king < 0) {
+            addPieceMoves(board, fromMask, ~0L, 0L, 0, type, moves);
+            if (type != MoveType.QUIETS) {
+                addEnPassantMoves(board, side, fromMask, king, moves);
+            }
+            return;
+        }
+
+        ChessGame.TeamColor enemy = opposite(side);
+        long kingBit = 1L << king;
+        long checkers = board.attackersTo(king, board.getOccupancy(), enemy);
+
+        if ((fromMask & kingBit) != 0) {
+            addKingMoves(board, side, king, type, moves);
+            if (checkers == 0 && type != MoveType.CAPTURES) {
+                addCastlingMoves(board, side, moves);
+            }
+        }
+
+        // In double check only the king can move
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+
+        // In single check the other pieces must capture the checker or block the check
+        long targets = checkers == 0
+                ? ~0L
+                : checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers));
+
+        long pinned = pinnedPieces(board, side, king);
+        addPieceMoves(board, fromMask & ~kingBit, targets, pinned, king, type, moves);
+        if (type != MoveType.QUIETS) {
+            addEnPassantMoves(board, side, fromMask, king, moves);
+        }
+    }
+
+    /**
+     * Generates pseudo-legal moves for each piece in pieces, keeping only the
+     * moves that land in targets and, for pinned pieces, on their pin line.
+     */
+    private static void addPieceMoves(ChessBoard board, long pieces, long targets, long pinned, int king,
+                                      MoveType type, MoveList moves) {
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            long allowed = targets;
+            if ((pinned & (1L << from)) != 0) {
+                allowed &= Bitboards.line(king, from);
+            }
+            if (allowed == 0) {
+                continue;
+            }
+
+            int start = moves.size();
+            ChessPiece piece = board.getPiece(from);
+            ChessPiece.getCalculator(piece.getPieceType()).generateMoves(from, board, type, moves);
+
+            if (allowed != ~0L) {
+                keepTargets(moves, start, allowed);
+            }
+        }
+    }
+
+    /**
+     * Adds king steps to squares the enemy does not attack. The king is taken
+     * out of the occupancy so it cannot hide from a slider behind itself.
+     */
+    private static void addKingMoves(ChessBoard board, ChessGame.TeamColor side, int king, MoveType type,
+                                     MoveList moves) {
+        ChessGame.TeamColor enemy = opposite(side);
+        long own = board.getOccupancy(side);
+        long occupiedWithoutKing = board.getOccupancy() & ~(1L << king);
+        long enemies = occupiedWithoutKing & ~own;
+
+        long targets = Bitboards.kingAttacks(king) & Bitboards.targets(type, own, enemies);
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+
+            if (!board.isSquareAttacked(target, occupiedWithoutKing, enemy)) {
+                int flags = (enemies & (1L << target)) != 0 ? Move.CAPTURE : 0;
+                moves.add(Move.encode(king, target, flags));
+            }
+        }
+    }
+
+    /**
+     * Adds castling moves for each right still in effect whose squares between
+     * king and rook are empty and whose king path is not attacked. The caller
+     * has already established that the king is not in check.
+     */
+    private static void addCastlingMoves(ChessBoard board, ChessGame.TeamColor side, MoveList moves) {
+        int rights = board.getCastlingRights();
+        boolean white = side == ChessGame.TeamColor.WHITE;
+        int kingside = white ? GameState.WHITE_KINGSIDE : GameState.BLACK_KINGSIDE;
+        int queenside = white ? GameState.WHITE_QUEENSIDE : GameState.BLACK_QUEENSIDE;
+        if ((rights & (kingside | queenside)) == 0) {
+            return;
+        }
+
+        int king = white ? 4 : 60;
+        ChessGame.TeamColor enemy = opposite(side);
+        long occupied = board.getOccupancy();
+
+        if ((rights & kingside) != 0
+                && (occupied & Bitboards.between(king, king + 3)) == 0
+                && !board.isSquareAttacked(king + 1, enemy)
+                && !board.isSquareAttacked(king + 2, enemy)) {
+            moves.add(Move.encode(king, king + 2, Move.CASTLE));
+        }
+        // The b-file square must be empty, but the king never crosses it
+        if ((rights & queenside) != 0
+                && (occupied & Bitboards.between(king, king - 4)) == 0
+                && !board.isSquareAttacked(king - 1, enemy)
+                && !board.isSquareAttacked(king - 2, enemy)) {
+            moves.add(Move.encode(king, king - 2, Move.CASTLE));
+        }
+    }
+
+    /**
+     * Adds en passant captures onto the board's en passant square, keeping
+     * each one only if the king is safe after it is made.
+     */
+    private static void addEnPassantMoves(ChessBoard board, ChessGame.TeamColor side, long fromMask, int king,
+                                          MoveList moves) {
+        int target = board.getEnPassantSquare();
+        // White captures onto the sixth rank, black onto the third
+        if (target < 0 || (side == ChessGame.TeamColor.WHITE) != (target >= 32)) {
+            return;
+        }
+
+        ChessGame.TeamColor enemy = opposite(side);
+        long capturers = Bitboards.pawnAttacks(enemy, target)
+                & board.getPieces(side, ChessPiece.PieceType.PAWN) & fromMask;
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+
+            int move = Move.encode(from, target, Move.CAPTURE | Move.EN_PASSANT);
+            long undo = board.makeMove(move);
+            boolean legal = king < 0 || !board.isSquareAttacked(king, enemy);
+            board.unmakeMove(move, undo);
+            if (legal) {
+                moves.add(move);
+            }
+        }
+    }
+
+    /**
+     * @return the side's pieces that stand alone between their king and an
+     * enemy rook, bishop or queen aimed at it
+     */
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor side, int king) {
+        ChessGame.TeamColor enemy = opposite(side);
+        long enemies = board.getOccupancy(enemy);
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+
+        // Sliders that would hit the king if only enemy pieces could block them
+        long snipers = (MagicBitboards.rookAttacks(king, enemies)
+                & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (MagicBitboards.bishopAttacks(king, enemies)
+                & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+
+        long occupied = board.getOccupancy();
+        long own = board.getOccupancy(side);
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Compacts moves[start..] in place, dropping moves whose target is not in allowed.
+     */
+    private static void keepTargets(MoveList moves, int start, long allowed) {
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if ((allowed & (1L << Move.to(move))) != 0) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    private static ChessGame.TeamColor opposite(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,185 @@
+package chess;
+
+/**
+ * Precomputed sliding piece attack tables using "fancy" magic bitboards.
+ * <p>
+ * For every square the relevant blocker squares (the rays, minus the board
+ * edge) are hashed with a magic multiplier into a dense per-square slice of a
+ * shared table, so the full attack set of a rook, bishop or queen is a single
+ * multiply, shift and array load. The magic multipliers below were found offline
+ * by a seeded random search; the tables themselves are filled once at class-init
+ * time.
+ */
+public final class MagicBitboards {
+    private static final int[][] ROOK_DIRECTIONS = { {1, 0}, {-1, 0}, {0, 1}, {0, -1} };
+    private static final int[][] BISHOP_DIRECTIONS = { {1, 1}, {1, -1}, {-1, 1}, {-1, -1} };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    private static final long[] ROOK_MAGICS = {
+            0x0A80004000801220L, 0x8040004010002008L, 0x2080200010008008L, 0x1100100008210004L,
+            0xC200209084020008L, 0x2100010004000208L, 0x0400081000822421L, 0x0200010422048844L,
+            0x0800800080400024L, 0x0001402000401000L, 0x3000801000802001L, 0x4400800800100083L,
+            0x0904802402480080L, 0x4040800400020080L, 0x0018808042000100L, 0x4040800080004100L,
+            0x0040048001458024L, 0x00A0004000205000L, 0x3100808010002000L, 0x4825010010000820L,
+            0x5004808008000401L, 0x2024818004000A00L, 0x0005808002000100L, 0x2100060004806104L,
+            0x0080400880008421L, 0x4062220600410280L, 0x010A004A00108022L, 0x0000100080080080L,
+            0x0021000500080010L, 0x0044000202001008L, 0x0000100400080102L, 0xC020128200040545L,
+            0x0080002000400040L, 0x0000804000802004L, 0x0000120022004080L, 0x010A386103001001L,
+            0x9010080080800400L, 0x8440020080800400L, 0x0004228824001001L, 0x000000490A000084L,
+            0x0080002000504000L, 0x200020005000C000L, 0x0012088020420010L, 0x0010010080080800L,
+            0x0085001008010004L, 0x0002000204008080L, 0x0040413002040008L, 0x0000304081020004L,
+            0x0080204000800080L, 0x3008804000290100L, 0x1010100080200080L, 0x2008100208028080L,
+            0x5000850800910100L, 0x8402019004680200L, 0x0120911028020400L, 0x0000008044010200L,
+            0x0020850200244012L, 0x0020850200244012L, 0x0000102001040841L, 0x140900040A100021L,
+            0x000200282410A102L, 0x000200282410A102L, 0x000200282410A102L, 0x4048240043802106L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x40106000A1160020L, 0x0020010250810120L, 0x2010010220280081L, 0x002806004050C040L,
+            0x0002021018000000L, 0x2001112010000400L, 0x0881010120218080L, 0x1030820110010500L,
+            0x0000120222042400L, 0x2000020404040044L, 0x8000480094208000L, 0x0003422A02000001L,
+            0x000A220210100040L, 0x8004820202226000L, 0x0018234854100800L, 0x0100004042101040L,
+            0x0004001004082820L, 0x0010000810010048L, 0x1014004208081300L, 0x2080818802044202L,
+            0x0040880C00A00100L, 0x0080400200522010L, 0x0001000188180B04L, 0x0080249202020204L,
+            0x1004400004100410L, 0x00013100A0022206L, 0x2148500001040080L, 0x4241080011004300L,
+            0x4020848004002000L, 0x10101380D1004100L, 0x0008004422020284L, 0x01010A1041008080L,
+            0x0808080400082121L, 0x0808080400082121L, 0x0091128200100C00L, 0x0202200802010104L,
+            0x8C0A020200440085L, 0x01A0008080B10040L, 0x0889520080122800L, 0x100902022202010AL,
+            0x04081A0816002000L, 0x0000681208005000L, 0x8170840041008802L, 0x0A00004200810805L,
+            0x0830404408210100L, 0x2602208106006102L, 0x1048300680802628L, 0x2602208106006102L,
+            0x0602010120110040L, 0x0941010801043000L, 0x000040440A210428L, 0x0008240020880021L,
+            0x0400002012048200L, 0x00AC102001210220L, 0x0220021002009900L, 0x84440C080A013080L,
+            0x0001008044200440L, 0x0004C04410841000L, 0x2000500104011130L, 0x1A0C010011C20229L,
+            0x0044800112202200L, 0x0434804908100424L, 0x0300404822C08200L, 0x48081010008A2A80L
+    };
+
+    static {
+        ROOK_TABLE = buildTable(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_TABLE = buildTable(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    }
+
+    private MagicBitboards() {
+    }
+
+    /**
+     * @param square    the 0-63 square the rook stands on
+     * @param occupancy every occupied square on the board
+     * @return the squares a rook attacks, including the first blocker on each ray
+     */
+    public static long rookAttacks(int square, long occupancy) {
+        int index = (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[ROOK_OFFSETS[square] + index];
+    }
+
+    /**
+     * @param square    the 0-63 square the bishop stands on
+     * @param occupancy every occupied square on the board
+     * @return the squares a bishop attacks, including the first blocker on each ray
+     */
+    public static long bishopAttacks(int square, long occupancy) {
+        int index = (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + index];
+    }
+
+    /**
+     * @param square    the 0-63 square the queen stands on
+     * @param occupancy every occupied square on the board
+     * @return the squares a queen attacks, including the first blocker on each ray
+     */
+    public static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Fills the shared attack table for one piece kind by enumerating every
+     * blocker subset of every square and storing its attacks at the magic index.
+     *
+     * @return the shared table; masks, shifts and offsets are filled in place
+     */
+    private static long[] buildTable(int[][] directions, long[] masks, long[] magics, int[] shifts,
+                                     int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = relevantMask(square, directions);
+            shifts[square] = 64 - Long.bitCount(masks[square]);
+            offsets[square] = size;
+            size += 1 << Long.bitCount(masks[square]);
+        }
+
+        long[] table = new long[size];
+        boolean[] filled = new boolean[size];
+        for (int square = 0; square < 64; square++) {
+            long mask = masks[square];
+
+            // Enumerate every subset of the mask (Carry-Rippler trick)
+            long subset = 0;
+            do {
+                long attacks = slowAttacks(square, subset, directions);
+                int slot = offsets[square] + (int) ((subset * magics[square]) >>> shifts[square]);
+                if (filled[slot] && table[slot] != attacks) {
+                    throw new IllegalStateException("Bad magic for square " + square);
+                }
+                filled[slot] = true;
+                table[slot] = attacks;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    /**
+     * @return the squares along each ray from square that can affect its attacks,
+     * excluding the last square of each ray since a blocker there changes nothing
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int row = square >>> 3;
+            int col = square & 7;
+            while (true) {
+                row += direction[0];
+                col += direction[1];
+                int nextRow = row + direction[0];
+                int nextCol = col + direction[1];
+                if (nextRow < 0 || nextRow > 7 || nextCol < 0 || nextCol > 7) {
+                    break;
+                }
+                mask |= 1L << (row * 8 + col);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Walks each ray one square at a time, stopping at (and including) the first blocker.
+     */
+    private static long slowAttacks(int square, long occupancy, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = square >>> 3;
+            int col = square & 7;
+            while (true) {
+                row += direction[0];
+                col += direction[1];
+                if (row < 0 || row > 7 || col < 0 || col > 7) {
+                    break;
+                }
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break; // Can't see past the first blocker.
+                }
+            }
+        }
+        return attacks;
+    }
+}
@@ -0,0 +1,91 @@
+package chess;
+
+/**
+ * Static helpers for moves packed into a single int, used by the
+ * allocation-free move generation path.
+ * <p>
+ * Layout: bits 0-5 hold the from square and bits 6-11 the to square (0-63,
+ * see {@link Bitboards}), bits 12-14 the promotion piece (0 for none,
+ * otherwise {@code PieceType.ordinal() + 1}) and bits 15 and up the flags.
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : (promotion.ordinal() + 1) << 12;
+        return from | (to << 6) | promotionBits | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int bits = (move >>> 12) & 0x7;
+        return bits == 0 ? null : TYPES[bits - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & 0x7000) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return the from, to and promotion bits without any flags, which is
+     * enough to identify a move within one position
+     */
+    public static int withoutFlags(int move) {
+        return move & 0x7FFF;
+    }
+
+    /**
+     * Converts a packed move to the public ChessMove representation
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+
+    /**
+     * Packs a ChessMove without flags; compare it against generated moves with
+     * {@link #withoutFlags(int)}
+     */
+    public static int fromChessMove(ChessMove move) {
+        return encode(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static String toString(int move) {
+        ChessPiece.PieceType promotion = promotion(move);
+        return Bitboards.position(from(move)).toString() + Bitboards.position(to(move))
+                + (promotion == null ? "" : promotion == ChessPiece.PieceType.KNIGHT ? "n"
+                : promotion.name().substring(0, 1).toLowerCase());
+    }
+}
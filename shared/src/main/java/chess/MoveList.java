@@ -0,0 +1,86 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A reusable, growable list of packed moves (see {@link Move}) backed by an
+ * int array. Callers own the list and {@link #clear()} it between uses, so
+ * generating moves does not allocate once the array has reached its working size.
+ */
+public class MoveList {
+    // No legal chess position has more than 218 moves
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            int[] grown = new int[moves.length * 2];
+            System.arraycopy(moves, 0, grown, 0, size);
+            moves = grown;
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move at or after newSize
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * @return the generated move matching from, to and promotion of the given
+     * move (ignoring flags), or {@link Move#NONE} if there is none
+     */
+    public int find(int move) {
+        int key = Move.withoutFlags(move);
+        for (int i = 0; i < size; i++) {
+            if (Move.withoutFlags(moves[i]) == key) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Adapter to the public API: converts every move to a ChessMove
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
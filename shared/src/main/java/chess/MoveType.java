@@ -0,0 +1,15 @@
+package chess;
+
+/**
+ * Which moves a generator produces. Searching captures and promotions before
+ * quiet moves finds cutoffs sooner, and generating them separately means the
+ * quiet moves are never generated when a capture already refutes a position.
+ */
+public enum MoveType {
+    // Every move
+    ALL,
+    // Captures, including en passant, and promotions
+    CAPTURES,
+    // Moves that neither capture nor promote, including castling
+    QUIETS
+}
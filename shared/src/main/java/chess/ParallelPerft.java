@@ -0,0 +1,171 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Work-stealing version of {@link Perft} on a {@link ForkJoinPool}.
+ * <p>
+ * The tree is split into one task per move at the root and at the first
+ * {@value #SPLIT_PLIES} plies below it; deeper plies are counted serially
+ * with make/unmake. Boards are not thread-safe, so every task works on its
+ * own copy, made by the thread that creates the task before it is forked.
+ */
+public final class ParallelPerft {
+    // Plies split into separate tasks; the start position gives ~400 tasks, enough to keep 32 cores busy
+    private static final int SPLIT_PLIES = 2;
+
+    private ParallelPerft() {
+    }
+
+    /**
+     * Counts the leaf nodes below a position on the common pool.
+     *
+     * @see #perft(ChessGame, int, ForkJoinPool)
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts the leaf nodes below a position. The game is not modified.
+     *
+     * @param game  the position to search from
+     * @param depth the number of plies to search, 0 or more
+     * @param pool  the pool to run the tasks on
+     * @return the number of move sequences of exactly depth plies
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(game.getBoard().copy(), game.getTeamTurn(), depth, SPLIT_PLIES, null));
+    }
+
+    /**
+     * Counts the leaf nodes below each legal root move separately.
+     *
+     * @param game  the position to search from
+     * @param depth the number of plies to search, 1 or more
+     * @param pool  the pool to run the tasks on
+     * @return node counts keyed by root move in coordinate notation, in generation order
+     */
+    public static Map<String, Long> divide(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+
+        ChessBoard board = game.getBoard().copy();
+        MoveList rootMoves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, game.getTeamTurn(), rootMoves);
+        List<PerftTask> tasks = childTasks(board, game.getTeamTurn(), rootMoves, depth - 1, SPLIT_PLIES - 1, null);
+
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            counts.put(Move.toString(rootMoves.get(i)), tasks.get(i).join());
+        }
+        return counts;
+    }
+
+    /**
+     * Visits every position exactly depth plies below a position, once per move
+     * sequence that reaches it, for bulk stress tests of move generation.
+     * <p>
+     * The visitor is called concurrently from the pool's threads. The board it
+     * receives belongs to the calling task and is only valid during the call;
+     * copy it to keep it.
+     *
+     * @param game    the position to start from
+     * @param depth   the number of plies to play, 0 or more
+     * @param pool    the pool to run the tasks on
+     * @param visitor a thread-safe callback for each leaf position
+     * @return the number of positions visited, the same as the perft count
+     */
+    public static long forEachPosition(ChessGame game, int depth, ForkJoinPool pool, Consumer<ChessBoard> visitor) {
+        return pool.invoke(new PerftTask(game.getBoard().copy(), game.getTeamTurn(), depth, SPLIT_PLIES, visitor));
+    }
+
+    /**
+     * Makes one board copy per move, applies the move to it and wraps it in a task.
+     */
+    private static List<PerftTask> childTasks(ChessBoard board, ChessGame.TeamColor side, MoveList moves,
+                                              int depth, int splitPlies, Consumer<ChessBoard> visitor) {
+        List<PerftTask> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            ChessBoard child = board.copy();
+            child.makeMove(moves.get(i));
+            tasks.add(new PerftTask(child, Perft.opposite(side), depth, splitPlies, visitor));
+        }
+        return tasks;
+    }
+
+    /**
+     * Walks the tree serially with make/unmake, calling the visitor at every leaf.
+     */
+    private static long visitLeaves(ChessBoard board, ChessGame.TeamColor side, int depth,
+                                    Consumer<ChessBoard> visitor) {
+        if (depth == 0) {
+            visitor.accept(board);
+            return 1;
+        }
+
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            long undo = board.makeMove(move);
+            nodes += visitLeaves(board, Perft.opposite(side), depth - 1, visitor);
+            board.unmakeMove(move, undo);
+        }
+        return nodes;
+    }
+
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor side;
+        private final int depth;
+        private final int splitPlies;
+        private final Consumer<ChessBoard> visitor;
+
+        PerftTask(ChessBoard board, ChessGame.TeamColor side, int depth, int splitPlies,
+                  Consumer<ChessBoard> visitor) {
+            this.board = board;
+            this.side = side;
+            this.depth = depth;
+            this.splitPlies = splitPlies;
+            this.visitor = visitor;
+        }
+
+        @Override
+        protected Long compute() {
+            // Small subtrees are cheaper to count here than to fork
+            if (splitPlies <= 0 || depth <= 2) {
+                return visitor == null
+                        ? Perft.perft(board, side, depth)
+                        : visitLeaves(board, side, depth, visitor);
+            }
+
+            MoveList moves = new MoveList();
+            LegalMoveGenerator.generateMoves(board, side, moves);
+            List<PerftTask> tasks = childTasks(board, side, moves, depth - 1, splitPlies - 1, visitor);
+            invokeAll(tasks);
+
+            long nodes = 0;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+}
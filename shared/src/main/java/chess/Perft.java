@@ -0,0 +1,232 @@
+package chess;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * <p>
+ * The counts are compared against published reference numbers to verify
+ * move generation, and the elapsed time gives a throughput figure for
+ * spotting regressions. Two paths are available: {@link Mode#VALID_MOVES}
+ * walks the tree through the public {@link ChessGame} API the way a client
+ * would, and {@link Mode#LEGAL_GENERATOR} drives {@link LegalMoveGenerator}
+ * with in-place make/unmake.
+ */
+public final class Perft {
+
+    /**
+     * Which move generation path to count with
+     */
+    public enum Mode {
+        VALID_MOVES,
+        LEGAL_GENERATOR
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf nodes below a position. The game is not modified.
+     *
+     * @param game  the position to search from
+     * @param depth the number of plies to search, 0 or more
+     * @param mode  the move generation path to use
+     * @return the number of move sequences of exactly depth plies
+     */
+    public static long perft(ChessGame game, int depth, Mode mode) {
+        if (mode == Mode.VALID_MOVES) {
+            return perftValidMoves(game, depth);
+        }
+
+        return perft(game.getBoard().copy(), game.getTeamTurn(), depth);
+    }
+
+    /**
+     * Counts the leaf nodes below a board with {@link LegalMoveGenerator}. The
+     * board is made and unmade in place, so the caller must own it.
+     */
+    static long perft(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        return perftGenerator(board, side, depth, newMoveLists(depth));
+    }
+
+    /**
+     * Counts the leaf nodes below each legal root move separately.
+     *
+     * @param game  the position to search from
+     * @param depth the number of plies to search, 1 or more
+     * @param mode  the move generation path to use
+     * @return node counts keyed by root move in coordinate notation (e.g. "e2e4", "a7a8q"),
+     * in generation order
+     */
+    public static Map<String, Long> divide(ChessGame game, int depth, Mode mode) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        ChessBoard board = game.getBoard().copy();
+        ChessGame.TeamColor side = game.getTeamTurn();
+
+        MoveList rootMoves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, rootMoves);
+        MoveList[] moveLists = newMoveLists(depth);
+
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            long nodes;
+            if (mode == Mode.VALID_MOVES) {
+                ChessGame child = copyGame(game);
+                makeMove(child, Move.toChessMove(move));
+                nodes = perftValidMoves(child, depth - 1);
+            } else {
+                long undo = board.makeMove(move);
+                nodes = perftGenerator(board, opposite(side), depth - 1, moveLists);
+                board.unmakeMove(move, undo);
+            }
+            counts.put(Move.toString(move), nodes);
+        }
+        return counts;
+    }
+
+    private static long perftGenerator(ChessBoard board, ChessGame.TeamColor side, int depth,
+                                       MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        MoveList moves = moveLists[depth];
+        moves.clear();
+        LegalMoveGenerator.generateMoves(board, side, moves);
+
+        // Every generated move is legal, so the last ply only needs counting
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        ChessGame.TeamColor next = opposite(side);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            long undo = board.makeMove(move);
+            nodes += perftGenerator(board, next, depth - 1, moveLists);
+            board.unmakeMove(move, undo);
+        }
+        return nodes;
+    }
+
+    private static long perftValidMoves(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        long nodes = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece == null || piece.getTeamColor() != side) {
+                    continue;
+                }
+
+                Collection<ChessMove> moves = game.validMoves(position);
+                if (depth == 1) {
+                    nodes += moves.size();
+                    continue;
+                }
+                for (ChessMove move : moves) {
+                    ChessGame child = copyGame(game);
+                    makeMove(child, move);
+                    nodes += perftValidMoves(child, depth - 1);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static ChessGame copyGame(ChessGame game) {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(game.getBoard().copy());
+        copy.setTeamTurn(game.getTeamTurn());
+        return copy;
+    }
+
+    private static void makeMove(ChessGame game, ChessMove move) {
+        try {
+            game.makeMove(move);
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("validMoves returned a move makeMove rejected: " + move, e);
+        }
+    }
+
+    private static MoveList[] newMoveLists(int depth) {
+        MoveList[] moveLists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            moveLists[i] = new MoveList();
+        }
+        return moveLists;
+    }
+
+    static ChessGame.TeamColor opposite(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * Runs perft from the command line and prints the node count and speed.
+     * <p>
+     * Usage: {@code Perft "<fen>" <depth> [--divide] [--valid-moves] [--threads <n>]}
+     * <p>
+     * With {@code --threads} the count runs on {@link ParallelPerft} with a pool of
+     * that many threads; the parallel path always uses the legal move generator.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: Perft \"<fen>\" <depth> [--divide] [--valid-moves] [--threads <n>]");
+            return;
+        }
+
+        ChessGame game = Fen.toGame(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        boolean divide = false;
+        Mode mode = Mode.LEGAL_GENERATOR;
+        int threads = 0;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> divide = true;
+                case "--valid-moves" -> mode = Mode.VALID_MOVES;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = 0;
+            Map<String, Long> counts = pool != null
+                    ? ParallelPerft.divide(game, depth, pool)
+                    : divide(game, depth, mode);
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+            System.out.println();
+        } else {
+            nodes = pool != null ? ParallelPerft.perft(game, depth, pool) : perft(game, depth, mode);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (pool != null) {
+            pool.shutdown();
+        }
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("Nodes: %d%n", nodes);
+        System.out.printf("Time: %.3f s%n", seconds);
+        System.out.printf("Nodes/sec: %.0f%n", seconds > 0 ? nodes / seconds : 0.0);
+    }
+}
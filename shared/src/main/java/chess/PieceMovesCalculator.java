@@ -3,5 +3,50 @@ package chess;
 import java.util.Collection;
 
 public interface PieceMovesCalculator{
-    public Collection<ChessMove> calculateMoves(ChessPosition position, ChessBoard board);
-}
\ No newline at end of file
+    /**
+     * Writes every pseudo-legal move of the piece on square into moves as packed
+     * ints (see {@link Move}). Nothing is allocated; the caller owns the list.
+     *
+     * @param square the 0-63 square of the piece to move
+     * @param board  the board the piece is on
+     * @param moves  the list to append to
+     */
+    public void generateMoves(int square, ChessBoard board, MoveList moves);
+
+    /**
+     * Writes the pseudo-legal moves of one {@link MoveType} of the piece on
+     * square into moves. This default generates every move and drops the rest;
+     * calculators override it to skip the other moves altogether.
+     *
+     * @param square the 0-63 square of the piece to move
+     * @param board  the board the piece is on
+     * @param type   which moves to generate
+     * @param moves  the list to append to
+     */
+    public default void generateMoves(int square, ChessBoard board, MoveType type, MoveList moves) {
+        int start = moves.size();
+        generateMoves(square, board, moves);
+        if (type == MoveType.ALL) {
+            return;
+        }
+
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            boolean capture = Move.isCapture(move) || Move.isPromotion(move);
+            if (capture == (type == MoveType.CAPTURES)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    /**
+     * Adapter from {@link #generateMoves} to the ChessMove based API
+     */
+    public default Collection<ChessMove> calculateMoves(ChessPosition position, ChessBoard board) {
+        MoveList moves = new MoveList();
+        generateMoves(Bitboards.square(position), board, moves);
+        return moves.toChessMoves();
+    }
+}
@@ -0,0 +1,83 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Zobrist keys of the positions a game has passed through since its last
+ * irreversible move (a capture or pawn move), for repetition detection.
+ * <p>
+ * No earlier position can ever recur, so the stack is cleared at each
+ * irreversible move and stays no longer than the fifty-move limit in
+ * practice. An occurrence count per key makes each repetition check O(1);
+ * the counts are not serialized and are rebuilt from the keys on first use
+ * after a game is loaded.
+ */
+public class PositionHistory {
+    private long[] keys = new long[16];
+    private int size;
+    private transient Map<Long, Integer> counts;
+
+    /**
+     * Records a position the game is leaving.
+     *
+     * @param key the position's {@link ChessGame#zobristKey()}
+     */
+    void push(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+        counts().merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * Forgets every recorded position, after an irreversible move or when the
+     * position is set up by hand.
+     */
+    void clear() {
+        if (keys.length > 16) {
+            keys = new long[16];
+        }
+        size = 0;
+        counts().clear();
+    }
+
+    /**
+     * @param key a position's {@link ChessGame#zobristKey()}
+     * @return how many times that position has been recorded
+     */
+    public int count(long key) {
+        return counts().getOrDefault(key, 0);
+    }
+
+    /**
+     * @return an independent copy with its counts already built, so the copy
+     * can be handed to another thread that only reads it
+     */
+    public PositionHistory copy() {
+        PositionHistory copy = new PositionHistory();
+        copy.keys = keys.clone();
+        copy.size = size;
+        copy.counts();
+        return copy;
+    }
+
+    /**
+     * @return the number of recorded positions
+     */
+    public int size() {
+        return size;
+    }
+
+    private Map<Long, Integer> counts() {
+        if (counts == null) {
+            counts = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                counts.merge(keys[i], 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
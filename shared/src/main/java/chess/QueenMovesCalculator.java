@@ -2,11 +2,8 @@ package chess;
 
 public class QueenMovesCalculator extends AbstractSlidingMovesCalculator {
     @Override
-    protected int[][] getDirections() {
+    protected long getAttacks(int square, long occupancy) {
         // Queen can move like both a Rook and a Bishop.
-        return new int[][] {
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
+        return MagicBitboards.queenAttacks(square, occupancy);
     }
 }
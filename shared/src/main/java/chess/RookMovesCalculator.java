@@ -2,8 +2,8 @@ package chess;
 
 public class RookMovesCalculator extends AbstractSlidingMovesCalculator {
     @Override
-    protected int[][] getDirections() {
+    protected long getAttacks(int square, long occupancy) {
         // Rook moves vertically and horizontally.
-        return new int[][] { {1, 0}, {-1, 0}, {0, 1}, {0, -1} };
+        return MagicBitboards.rookAttacks(square, occupancy);
     }
 }
@@ -0,0 +1,68 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * <p>
+ * A position's key is the XOR of one key per (piece, square) pair on the board,
+ * plus keys for the side to move, castling rights and en passant file. Keys are
+ * generated from a fixed seed so the same position hashes to the same value in
+ * every JVM, which lets keys be persisted and shared.
+ */
+public final class Zobrist {
+    // Indexed by ChessBoard.pieceIndex, then square
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    // Indexed by the 4-bit castling rights mask
+    private static final long[] CASTLING = new long[16];
+    // Indexed by file, 0 = a-file
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long[] state = { 0x9E3779B97F4A7C15L };
+        for (long[] keys : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = nextKey(state);
+            }
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            CASTLING[rights] = nextKey(state);
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = nextKey(state);
+        }
+        BLACK_TO_MOVE = nextKey(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex the piece's {@link ChessBoard#pieceIndex} (0-11)
+     * @param square     the 0-63 square the piece stands on
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * SplitMix64 step over a one-element state array.
+     */
+    private static long nextKey(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
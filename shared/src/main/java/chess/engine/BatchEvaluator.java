@@ -0,0 +1,177 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.List;
+
+/**
+ * Scores many positions at once with the same tapered material and
+ * piece-square evaluation as {@link Evaluator}, for analysis that looks at
+ * far more positions than a single search.
+ * <p>
+ * Positions are passed as packed boards: {@link #LONGS_PER_BOARD} bitboards
+ * per position, in {@link ChessBoard#pieceIndex} order, laid end to end in one
+ * array. When the shared module is built with the {@code vector} profile and
+ * the JVM is started with {@code --add-modules jdk.incubator.vector}, each
+ * piece's squares are added with SIMD lanes; otherwise the evaluator falls
+ * back to walking the bits one at a time. Both give the same scores.
+ */
+public final class BatchEvaluator {
+    public static final int LONGS_PER_BOARD = 12;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "chess.engine.VectorKernel";
+    // A side has at most 16 pieces, so this keeps either half of a packed sum within 16 bits
+    private static final int MAX_WEIGHT = Short.MAX_VALUE / 16;
+
+    /**
+     * Scores a run of packed boards.
+     */
+    interface Kernel {
+        void evaluate(long[] boards, int count, int[] scores);
+    }
+
+    // Indexed by pieceIndex * 64 + square: the middlegame score in the high half, the endgame score in the low half
+    private final int[] weights = new int[LONGS_PER_BOARD * 64];
+    private final int[] phases = new int[LONGS_PER_BOARD];
+    private final int maxPhase;
+    private final Kernel kernel;
+    private final boolean vectorized;
+
+    public BatchEvaluator() {
+        this(EvaluationWeights.defaults());
+    }
+
+    /**
+     * @throws IllegalArgumentException if a weight is too large to pack
+     */
+    public BatchEvaluator(EvaluationWeights weights) {
+        this(weights, true);
+    }
+
+    /**
+     * @param useVector false to use the scalar code even when the Vector API is available
+     */
+    BatchEvaluator(EvaluationWeights weights, boolean useVector) {
+        for (int pieceIndex = 0; pieceIndex < LONGS_PER_BOARD; pieceIndex++) {
+            for (int square = 0; square < 64; square++) {
+                this.weights[pieceIndex * 64 + square] = pack(weights.middlegame(pieceIndex, square),
+                        weights.endgame(pieceIndex, square));
+            }
+            phases[pieceIndex] = weights.phase(pieceIndex);
+        }
+        this.maxPhase = weights.maxPhase();
+        Kernel vector = useVector ? vectorKernel(this.weights, phases, maxPhase) : null;
+        this.kernel = vector != null ? vector : this::evaluateScalar;
+        this.vectorized = vector != null;
+    }
+
+    /**
+     * @return true if boards are scored with the Vector API
+     */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Copies a board's bitboards into a packed array.
+     *
+     * @param board  the board to pack
+     * @param boards the packed array
+     * @param index  the position's index in the packed array
+     */
+    public static void pack(ChessBoard board, long[] boards, int index) {
+        int offset = index * LONGS_PER_BOARD;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                boards[offset + ChessBoard.pieceIndex(color, type)] = board.getPieces(color, type);
+            }
+        }
+    }
+
+    /**
+     * @return the boards packed in order
+     */
+    public static long[] pack(List<ChessBoard> boards) {
+        long[] packed = new long[boards.size() * LONGS_PER_BOARD];
+        for (int i = 0; i < boards.size(); i++) {
+            pack(boards.get(i), packed, i);
+        }
+        return packed;
+    }
+
+    /**
+     * @param boards packed boards
+     * @param count  how many boards to score, from the start of the array
+     * @param scores receives each board's value in centipawns, positive when white is better
+     */
+    public void evaluate(long[] boards, int count, int[] scores) {
+        if (count < 0 || (long) count * LONGS_PER_BOARD > boards.length || count > scores.length) {
+            throw new IllegalArgumentException("Cannot score " + count + " boards from " + boards.length
+                    + " bitboards into " + scores.length + " scores");
+        }
+        kernel.evaluate(boards, count, scores);
+    }
+
+    /**
+     * @return the scores of every board in the packed array
+     */
+    public int[] evaluate(long[] boards) {
+        int[] scores = new int[boards.length / LONGS_PER_BOARD];
+        evaluate(boards, scores.length, scores);
+        return scores;
+    }
+
+    /**
+     * Blends the two halves of a packed sum by phase, rounding as {@link Evaluator#evaluate} does.
+     */
+    static int taper(int packed, int phase, int maxPhase) {
+        int endgame = (short) packed;
+        int middlegame = (packed - endgame) >> 16;
+        int mgWeight = Math.min(phase, maxPhase);
+        return (middlegame * mgWeight + endgame * (maxPhase - mgWeight)) / maxPhase;
+    }
+
+    private static int pack(int middlegame, int endgame) {
+        if (Math.abs(middlegame) > MAX_WEIGHT || Math.abs(endgame) > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Evaluation weights must be within " + MAX_WEIGHT
+                    + " centipawns to be scored in batches");
+        }
+        return (middlegame << 16) + endgame;
+    }
+
+    private void evaluateScalar(long[] boards, int count, int[] scores) {
+        for (int board = 0; board < count; board++) {
+            int offset = board * LONGS_PER_BOARD;
+            int sum = 0;
+            int phase = 0;
+            for (int pieceIndex = 0; pieceIndex < LONGS_PER_BOARD; pieceIndex++) {
+                long pieces = boards[offset + pieceIndex];
+                phase += Long.bitCount(pieces) * phases[pieceIndex];
+                while (pieces != 0) {
+                    sum += weights[pieceIndex * 64 + Long.numberOfTrailingZeros(pieces)];
+                    pieces &= pieces - 1;
+                }
+            }
+            scores[board] = taper(sum, phase, maxPhase);
+        }
+    }
+
+    /**
+     * Loads the vector kernel by name, since it is only compiled under the
+     * {@code vector} profile and cannot be linked without its module.
+     */
+    private static Kernel vectorKernel(int[] weights, int[] phases, int maxPhase) {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (Kernel) Class.forName(VECTOR_KERNEL)
+                    .getDeclaredConstructor(int[].class, int[].class, int.class)
+                    .newInstance(weights, phases, maxPhase);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package chess.engine;
+
+import chess.ChessPiece;
+
+/**
+ * Fixed piece values for the search's capture heuristics: static exchange
+ * evaluation, MVV-LVA move ordering and delta pruning.
+ * <p>
+ * Positions are scored by {@link Evaluator} with the tapered
+ * {@link EvaluationWeights}. These values are deliberately kept apart from
+ * those weights: the heuristics need one value per piece that does not
+ * change with the game phase, and the pruning margins in {@link Search} are
+ * set against them, so retuning the evaluation leaves the search's pruning
+ * unchanged.
+ */
+public final class Evaluation {
+    // Centipawn values indexed by PieceType ordinal; the king is never captured
+    private static final int[] PIECE_VALUES = { 0, 900, 330, 320, 500, 100 };
+
+    private Evaluation() {
+    }
+
+    /**
+     * @return the centipawn value of a piece type
+     */
+    public static int pieceValue(ChessPiece.PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,174 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * The tunable numbers behind {@link Evaluator}: piece values, piece-square
+ * tables and game phase weights, each for the middlegame and the endgame.
+ * <p>
+ * Weights are read from a properties file (see the bundled
+ * {@code chess/engine/evaluation.properties} for the format), so they can be
+ * tuned without recompiling. On loading, each piece's value is folded into its
+ * table and black's tables are mirrored and negated, so the evaluator needs a
+ * single lookup per piece and square, scored from white's point of view.
+ */
+public final class EvaluationWeights {
+    public static final String DEFAULT_RESOURCE = "chess/engine/evaluation.properties";
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static volatile EvaluationWeights defaults;
+
+    // Indexed by pieceIndex * 64 + square
+    private final int[] middlegame = new int[12 * 64];
+    private final int[] endgame = new int[12 * 64];
+    // Indexed by pieceIndex
+    private final int[] phase = new int[12];
+    private final int maxPhase;
+
+    private EvaluationWeights(Properties properties) {
+        int startPhase = 0;
+        for (ChessPiece.PieceType type : TYPES) {
+            int[] mgTable = table(properties, "pst.mg." + type, null);
+            int[] egTable = table(properties, "pst.eg." + type, mgTable);
+            int mgValue = integer(properties, "value.mg." + type);
+            int egValue = integer(properties, "value.eg." + type);
+            int typePhase = integer(properties, "phase." + type);
+
+            int white = ChessBoard.pieceIndex(ChessGame.TeamColor.WHITE, type);
+            int black = ChessBoard.pieceIndex(ChessGame.TeamColor.BLACK, type);
+            for (int square = 0; square < 64; square++) {
+                // Tables are written rank 8 first; square 0 is a1
+                int entry = (7 - square / 8) * 8 + square % 8;
+                middlegame[white * 64 + square] = mgValue + mgTable[entry];
+                endgame[white * 64 + square] = egValue + egTable[entry];
+                // Flipping the rank gives black's view of the same square
+                middlegame[black * 64 + (square ^ 56)] = -(mgValue + mgTable[entry]);
+                endgame[black * 64 + (square ^ 56)] = -(egValue + egTable[entry]);
+            }
+            phase[white] = typePhase;
+            phase[black] = typePhase;
+            startPhase += typePhase * 2 * startingCount(type);
+        }
+        if (startPhase <= 0) {
+            throw new IllegalArgumentException("Phase weights must give the starting position a positive phase");
+        }
+        maxPhase = startPhase;
+    }
+
+    /**
+     * @return the weights bundled with the engine, loaded once
+     */
+    public static EvaluationWeights defaults() {
+        EvaluationWeights weights = defaults;
+        if (weights == null) {
+            try (InputStream in = EvaluationWeights.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Unable to find " + DEFAULT_RESOURCE);
+                }
+                weights = load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read " + DEFAULT_RESOURCE, e);
+            }
+            defaults = weights;
+        }
+        return weights;
+    }
+
+    /**
+     * @param file a properties file in the format of {@link #DEFAULT_RESOURCE}
+     * @throws IllegalArgumentException if a weight is missing or malformed
+     */
+    public static EvaluationWeights load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * @param in properties in the format of {@link #DEFAULT_RESOURCE}
+     * @throws IllegalArgumentException if a weight is missing or malformed
+     */
+    public static EvaluationWeights load(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        return new EvaluationWeights(properties);
+    }
+
+    /**
+     * @return the middlegame score of a piece on a square, positive for white
+     */
+    int middlegame(int pieceIndex, int square) {
+        return middlegame[pieceIndex * 64 + square];
+    }
+
+    /**
+     * @return the endgame score of a piece on a square, positive for white
+     */
+    int endgame(int pieceIndex, int square) {
+        return endgame[pieceIndex * 64 + square];
+    }
+
+    int phase(int pieceIndex) {
+        return phase[pieceIndex];
+    }
+
+    /**
+     * @return the phase of the starting position; positions at or above it are pure middlegame
+     */
+    int maxPhase() {
+        return maxPhase;
+    }
+
+    private static int startingCount(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING, QUEEN -> 1;
+            case BISHOP, KNIGHT, ROOK -> 2;
+            case PAWN -> 8;
+        };
+    }
+
+    private static int integer(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing evaluation weight " + key);
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Evaluation weight " + key + " is not a number: " + value);
+        }
+    }
+
+    private static int[] table(Properties properties, String key, int[] fallback) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            if (fallback == null) {
+                throw new IllegalArgumentException("Missing piece-square table " + key);
+            }
+            return fallback;
+        }
+        String[] entries = value.split(",");
+        if (entries.length != 64) {
+            throw new IllegalArgumentException("Piece-square table " + key + " has " + entries.length
+                    + " entries instead of 64");
+        }
+        int[] table = new int[64];
+        for (int i = 0; i < 64; i++) {
+            try {
+                table[i] = Integer.parseInt(entries[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Piece-square table " + key + " has a bad entry: " + entries[i]);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,132 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * Tapered material and piece-square evaluation, kept as running sums so
+ * evaluating a position costs O(1).
+ * <p>
+ * The evaluator holds the middlegame and endgame sums and the game phase for
+ * one board. {@link #reset} computes them from scratch. After that,
+ * {@link #makeMove} adjusts them for only the squares a move touches, and
+ * {@link #unmakeMove} restores them from a stack. The evaluation blends the
+ * two sums by phase, so the score slides from middlegame toward endgame
+ * weights as pieces come off.
+ */
+public class Evaluator {
+    private final EvaluationWeights weights;
+
+    private int middlegame;
+    private int endgame;
+    private int phase;
+    // Saved sums, three ints per move made
+    private int[] stack = new int[3 * Search.MAX_PLY];
+    private int stackSize;
+
+    public Evaluator() {
+        this(EvaluationWeights.defaults());
+    }
+
+    public Evaluator(EvaluationWeights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Recomputes the sums from every piece on a board and empties the undo stack.
+     */
+    public void reset(ChessBoard board) {
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        stackSize = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                int pieceIndex = ChessBoard.pieceIndex(color, type);
+                long pieces = board.getPieces(color, type);
+                while (pieces != 0) {
+                    add(pieceIndex, Long.numberOfTrailingZeros(pieces));
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the sums for a move. Call it just before the board makes the
+     * move, while the board still shows what the move captures.
+     *
+     * @param board the board, in the position before the move
+     * @param move  the packed move about to be made
+     */
+    public void makeMove(ChessBoard board, int move) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = middlegame;
+        stack[stackSize++] = endgame;
+        stack[stackSize++] = phase;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        ChessGame.TeamColor color = piece.getTeamColor();
+        ChessPiece.PieceType type = piece.getPieceType();
+        int pieceIndex = ChessBoard.pieceIndex(color, type);
+        remove(pieceIndex, from);
+
+        ChessPiece captured = board.getPiece(to);
+        if (captured != null) {
+            remove(ChessBoard.pieceIndex(captured.getTeamColor(), captured.getPieceType()), to);
+        } else if (type == ChessPiece.PieceType.PAWN && to == board.getEnPassantSquare()) {
+            ChessGame.TeamColor enemy = color == ChessGame.TeamColor.WHITE
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            remove(ChessBoard.pieceIndex(enemy, ChessPiece.PieceType.PAWN), (from & ~7) | (to & 7));
+        } else if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            // Castling: the rook goes from the corner to the square the king crossed
+            int rookIndex = ChessBoard.pieceIndex(color, ChessPiece.PieceType.ROOK);
+            remove(rookIndex, to > from ? from + 3 : from - 4);
+            add(rookIndex, (from + to) >>> 1);
+        }
+
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        add(promotion == null ? pieceIndex : ChessBoard.pieceIndex(color, promotion), to);
+    }
+
+    /**
+     * Restores the sums from before the last move passed to {@link #makeMove}.
+     */
+    public void unmakeMove() {
+        phase = stack[--stackSize];
+        endgame = stack[--stackSize];
+        middlegame = stack[--stackSize];
+    }
+
+    /**
+     * @param side the side to score for
+     * @return the position's value in centipawns, positive when side is better
+     */
+    public int evaluate(ChessGame.TeamColor side) {
+        int maxPhase = weights.maxPhase();
+        // Promotions can push the phase past the start position's
+        int mgWeight = Math.min(phase, maxPhase);
+        int score = (middlegame * mgWeight + endgame * (maxPhase - mgWeight)) / maxPhase;
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    private void add(int pieceIndex, int square) {
+        middlegame += weights.middlegame(pieceIndex, square);
+        endgame += weights.endgame(pieceIndex, square);
+        phase += weights.phase(pieceIndex);
+    }
+
+    private void remove(int pieceIndex, int square) {
+        middlegame -= weights.middlegame(pieceIndex, square);
+        endgame -= weights.endgame(pieceIndex, square);
+        phase -= weights.phase(pieceIndex);
+    }
+}
@@ -0,0 +1,106 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * What the search has learned about quiet moves, used to order them.
+ * <p>
+ * Killers are the last two quiet moves that caused a cutoff at each ply;
+ * sibling positions often fall to the same move. A counter-move is the quiet
+ * move that last refuted a given previous move (by the piece that moved and
+ * where it went). The history table scores every from-to pair by how often it
+ * caused cutoffs, weighted by depth, and lowers the score of quiet moves that
+ * were tried first and failed.
+ * <p>
+ * Each search thread has its own tables; they are not thread-safe.
+ */
+class HistoryTables {
+    // History scores stay within +-MAX_HISTORY; each update moves a score part of the way there
+    static final int MAX_HISTORY = 16384;
+    private static final int MAX_BONUS = 1200;
+
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    // Indexed by pieceIndex * 64 + target square of the previous move
+    private final int[] counterMoves = new int[12 * 64];
+    // Indexed by TeamColor ordinal, then from * 64 + to
+    private final int[][] history = new int[2][64 * 64];
+
+    /**
+     * Prepares for a new search: killers belong to the old root and are
+     * dropped, history scores are halved so recent results count most.
+     */
+    void newSearch() {
+        for (int[] ply : killers) {
+            Arrays.fill(ply, Move.NONE);
+        }
+        for (int[] side : history) {
+            for (int i = 0; i < side.length; i++) {
+                side[i] /= 2;
+            }
+        }
+    }
+
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    /**
+     * @param board        the position after previousMove
+     * @param previousMove the move that led to the position, or {@link Move#NONE} at the root
+     * @return the quiet move that last refuted previousMove, or {@link Move#NONE}
+     */
+    int counterMove(ChessBoard board, int previousMove) {
+        return previousMove == Move.NONE ? Move.NONE : counterMoves[counterIndex(board, previousMove)];
+    }
+
+    int history(ChessGame.TeamColor side, int move) {
+        return history[side.ordinal()][Move.from(move) * 64 + Move.to(move)];
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff.
+     *
+     * @param board        the position the move was played in
+     * @param side         the side that played it
+     * @param ply          the distance from the root
+     * @param previousMove the move that led to the position, or {@link Move#NONE}
+     * @param move         the move that caused the cutoff
+     * @param depth        the remaining depth at the cutoff
+     * @param failed       quiet moves searched before it without a cutoff
+     * @param failedCount  the number of moves in failed
+     */
+    void recordCutoff(ChessBoard board, ChessGame.TeamColor side, int ply, int previousMove, int move, int depth,
+                      int[] failed, int failedCount) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (previousMove != Move.NONE) {
+            counterMoves[counterIndex(board, previousMove)] = move;
+        }
+
+        int bonus = Math.min(depth * depth * 16, MAX_BONUS);
+        int[] scores = history[side.ordinal()];
+        adjust(scores, move, bonus);
+        for (int i = 0; i < failedCount; i++) {
+            adjust(scores, failed[i], -bonus);
+        }
+    }
+
+    private static void adjust(int[] scores, int move, int bonus) {
+        int index = Move.from(move) * 64 + Move.to(move);
+        // Large scores move less, so no entry can run away past MAX_HISTORY
+        scores[index] += bonus - scores[index] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private static int counterIndex(ChessBoard board, int previousMove) {
+        int to = Move.to(previousMove);
+        ChessPiece piece = board.getPiece(to);
+        return ChessBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType()) * 64 + to;
+    }
+}
@@ -0,0 +1,279 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.LegalMoveGenerator;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveType;
+
+/**
+ * Hands out the legal moves of a position one at a time, best guesses first,
+ * generating each group of moves only when it is reached.
+ * <p>
+ * The stages are: the hash move; captures and promotions by most valuable
+ * victim / least valuable attacker (MVV-LVA); the two killer moves; the
+ * counter-move; the remaining quiet moves by history score; and last the
+ * captures that lose material by {@link StaticExchange}. Most cutoffs come
+ * from the hash move or a capture, in which case the quiet moves are never
+ * generated. Moves taken from the tables rather than generated are checked
+ * for legality first, and each move is returned once. In check every evasion
+ * is generated in one go.
+ * <p>
+ * For the quiescence search the picker returns only the captures and
+ * promotions that do not lose material, or every evasion when in check.
+ * <p>
+ * The search keeps one picker per ply and reuses it, so picking allocates nothing.
+ */
+class MovePicker {
+    private static final int HASH = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int COUNTER_MOVE = 5;
+    private static final int GENERATE_QUIETS = 6;
+    private static final int QUIETS = 7;
+    private static final int BAD_CAPTURES = 8;
+    private static final int GENERATE_EVASIONS = 9;
+    private static final int EVASIONS = 10;
+    private static final int DONE = 11;
+
+    // Evasion captures sort ahead of every history score
+    private static final int CAPTURE_BONUS = 1 << 20;
+
+    private final MoveList moves = new MoveList();
+    private int[] scores = new int[256];
+    private final MoveList pieceMoves = new MoveList(32);
+    // Captures deferred by the CAPTURES stage because they lose material
+    private final int[] badCaptures = new int[256];
+    private int badCaptureCount;
+    private int badCaptureIndex;
+    private final HistoryTables tables;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor side;
+    private int stage;
+    private int index;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int counterMove;
+    private int ply;
+    private int previousMove;
+    private boolean inCheck;
+    private boolean quiescence;
+
+    MovePicker(HistoryTables tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Starts picking moves for a position.
+     *
+     * @param board        the position
+     * @param side         the side to move
+     * @param hashMove     the move to try first, or {@link Move#NONE}; ignored if not legal here
+     * @param ply          the distance from the root, for the killer moves
+     * @param previousMove the move that led to the position, for the counter-move, or {@link Move#NONE}
+     * @param inCheck      whether side is in check
+     */
+    void init(ChessBoard board, ChessGame.TeamColor side, int hashMove, int ply, int previousMove, boolean inCheck) {
+        this.board = board;
+        this.side = side;
+        this.hashMove = hashMove;
+        this.ply = ply;
+        this.previousMove = previousMove;
+        this.inCheck = inCheck;
+        quiescence = false;
+        firstKiller = Move.NONE;
+        secondKiller = Move.NONE;
+        counterMove = Move.NONE;
+        badCaptureCount = 0;
+        badCaptureIndex = 0;
+        stage = hashMove != Move.NONE ? HASH : inCheck ? GENERATE_EVASIONS : GENERATE_CAPTURES;
+    }
+
+    /**
+     * Starts picking moves for a quiescence search: captures and promotions
+     * that do not lose material, or every evasion when in check.
+     *
+     * @param board   the position
+     * @param side    the side to move
+     * @param inCheck whether side is in check
+     */
+    void initQuiescence(ChessBoard board, ChessGame.TeamColor side, boolean inCheck) {
+        init(board, side, Move.NONE, 0, Move.NONE, inCheck);
+        quiescence = true;
+    }
+
+    /**
+     * @return the next move to search, or {@link Move#NONE} when every legal move has been returned
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case HASH -> {
+                    stage = inCheck ? GENERATE_EVASIONS : GENERATE_CAPTURES;
+                    if (isLegal(hashMove)) {
+                        return hashMove;
+                    }
+                    hashMove = Move.NONE;
+                }
+                case GENERATE_CAPTURES -> {
+                    generate(MoveType.CAPTURES);
+                    for (int i = 0; i < moves.size(); i++) {
+                        scores[i] = captureScore(moves.get(i));
+                    }
+                    stage = CAPTURES;
+                }
+                case CAPTURES -> {
+                    int move;
+                    while ((move = pickBest()) != Move.NONE) {
+                        if (StaticExchange.isAtLeast(board, move, 0)) {
+                            return move;
+                        }
+                        // Losing captures go after the quiet moves; quiescence drops them
+                        if (!quiescence) {
+                            badCaptures[badCaptureCount++] = move;
+                        }
+                    }
+                    stage = quiescence ? DONE : FIRST_KILLER;
+                }
+                case FIRST_KILLER -> {
+                    stage = SECOND_KILLER;
+                    firstKiller = tables.killer(ply, 0);
+                    if (isUntriedQuiet(firstKiller)) {
+                        return firstKiller;
+                    }
+                    firstKiller = Move.NONE;
+                }
+                case SECOND_KILLER -> {
+                    stage = COUNTER_MOVE;
+                    secondKiller = tables.killer(ply, 1);
+                    if (isUntriedQuiet(secondKiller)) {
+                        return secondKiller;
+                    }
+                    secondKiller = Move.NONE;
+                }
+                case COUNTER_MOVE -> {
+                    stage = GENERATE_QUIETS;
+                    counterMove = tables.counterMove(board, previousMove);
+                    if (isUntriedQuiet(counterMove)) {
+                        return counterMove;
+                    }
+                    counterMove = Move.NONE;
+                }
+                case GENERATE_QUIETS -> {
+                    generate(MoveType.QUIETS);
+                    for (int i = 0; i < moves.size(); i++) {
+                        scores[i] = tables.history(side, moves.get(i));
+                    }
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    int move = pickBest();
+                    if (move != Move.NONE) {
+                        return move;
+                    }
+                    stage = BAD_CAPTURES;
+                }
+                case BAD_CAPTURES -> {
+                    if (badCaptureIndex < badCaptureCount) {
+                        return badCaptures[badCaptureIndex++];
+                    }
+                    stage = DONE;
+                }
+                case GENERATE_EVASIONS -> {
+                    generate(MoveType.ALL);
+                    for (int i = 0; i < moves.size(); i++) {
+                        int move = moves.get(i);
+                        scores[i] = Move.isCapture(move) || Move.isPromotion(move)
+                                ? CAPTURE_BONUS + captureScore(move)
+                                : tables.history(side, move);
+                    }
+                    stage = EVASIONS;
+                }
+                case EVASIONS -> {
+                    int move = pickBest();
+                    if (move != Move.NONE) {
+                        return move;
+                    }
+                    stage = DONE;
+                }
+                default -> {
+                    return Move.NONE;
+                }
+            }
+        }
+    }
+
+    private void generate(MoveType type) {
+        moves.clear();
+        index = 0;
+        LegalMoveGenerator.generateMoves(board, side, type, moves);
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+    }
+
+    /**
+     * Selection sort step: swaps the best scored remaining move to the front
+     * and returns it, skipping moves already returned by an earlier stage.
+     */
+    private int pickBest() {
+        while (index < moves.size()) {
+            int best = index;
+            for (int i = index + 1; i < moves.size(); i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            int move = moves.get(best);
+            moves.set(best, moves.get(index));
+            scores[best] = scores[index];
+            index++;
+
+            if (move != hashMove && move != firstKiller && move != secondKiller && move != counterMove) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Most valuable victim first; among equal victims, least valuable attacker first.
+     */
+    private int captureScore(int move) {
+        ChessPiece victim = board.getPiece(Move.to(move));
+        int victimValue = Move.hasFlag(move, Move.EN_PASSANT) ? Evaluation.pieceValue(ChessPiece.PieceType.PAWN)
+                : victim == null ? 0 : Evaluation.pieceValue(victim.getPieceType());
+        int promotionValue = Move.isPromotion(move) ? Evaluation.pieceValue(Move.promotion(move)) : 0;
+        int attackerValue = Evaluation.pieceValue(board.getPiece(Move.from(move)).getPieceType());
+        return (victimValue + promotionValue) * 16 - attackerValue / 16;
+    }
+
+    /**
+     * @return true if a killer or counter-move is a quiet move, legal here, and not the hash move
+     */
+    private boolean isUntriedQuiet(int move) {
+        return move != Move.NONE && move != hashMove && move != firstKiller && move != secondKiller
+                && !Move.isCapture(move) && !Move.isPromotion(move) && isLegal(move);
+    }
+
+    /**
+     * A move from the tables comes from another position; it is legal here
+     * only if the piece on its square generates exactly that move.
+     */
+    private boolean isLegal(int move) {
+        int from = Move.from(move);
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null || piece.getTeamColor() != side) {
+            return false;
+        }
+        pieceMoves.clear();
+        LegalMoveGenerator.generateMoves(board, side, from, pieceMoves);
+        return pieceMoves.find(move) == move;
+    }
+}
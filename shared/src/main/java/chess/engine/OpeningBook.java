@@ -0,0 +1,162 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.LegalMoveGenerator;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only opening book in the Polyglot layout: 16-byte big-endian entries
+ * of (key, move, weight, learn) sorted by key as an unsigned number, with
+ * every move for a position stored next to each other.
+ * <p>
+ * Unlike Polyglot, keys are this engine's {@link ChessGame#zobristKey()} and
+ * moves are the low 16 bits of a packed {@link Move} (from, to and
+ * promotion), so books come from {@link OpeningBookBuilder} rather than
+ * Polyglot tools. The learn field is written as 0 and ignored.
+ * <p>
+ * The file is memory-mapped and searched in place with a binary search, so
+ * a lookup reads a few pages and copies nothing. The mapping is read only
+ * with absolute reads, so one book can be shared by any number of threads.
+ */
+public final class OpeningBook {
+    static final int ENTRY_BYTES = 16;
+
+    /**
+     * A book move and how often it was played.
+     *
+     * @param move   the move
+     * @param weight its relative frequency, 1-65535
+     */
+    public record Entry(ChessMove move, int weight) {
+    }
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+    }
+
+    /**
+     * Maps a book file into memory. The file can be deleted or replaced
+     * afterwards without affecting the book.
+     *
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a whole number of entries
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_BYTES != 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return new OpeningBook(mapped.order(ByteOrder.BIG_ENDIAN));
+        }
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param game the position to look up
+     * @return the book moves that are legal in the position, most played
+     * first; empty if the position is not in the book
+     */
+    public List<Entry> lookup(ChessGame game) {
+        List<Entry> found = new ArrayList<>();
+        long key = game.zobristKey();
+        int index = firstIndex(key);
+        if (index < 0) {
+            return found;
+        }
+
+        MoveList legal = new MoveList();
+        LegalMoveGenerator.generateMoves(game.getBoard(), game.getTeamTurn(), legal);
+        for (; index < size && keyAt(index) == key; index++) {
+            // A key collision could name a move that is not legal here
+            int move = legal.find(moveAt(index));
+            if (move != Move.NONE) {
+                found.add(new Entry(Move.toChessMove(move), weightAt(index)));
+            }
+        }
+        found.sort(Comparator.comparingInt(Entry::weight).reversed());
+        return found;
+    }
+
+    /**
+     * Chooses a book move at random in proportion to the weights, so a bot
+     * varies its openings the way the games it learned from did.
+     *
+     * @param game   the position to look up
+     * @param random the source of randomness
+     * @return a book move, or null if the position is not in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<Entry> found = lookup(game);
+        int total = 0;
+        for (Entry entry : found) {
+            total += entry.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int choice = random.nextInt(total);
+        for (Entry entry : found) {
+            choice -= entry.weight();
+            if (choice < 0) {
+                return entry.move();
+            }
+        }
+        return found.get(found.size() - 1).move();
+    }
+
+    /**
+     * @return the index of the first entry with the key, or -1 if there is none
+     */
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < size && keyAt(low) == key ? low : -1;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+
+    private int moveAt(int index) {
+        return Short.toUnsignedInt(entries.getShort(index * ENTRY_BYTES + 8));
+    }
+
+    private int weightAt(int index) {
+        return Short.toUnsignedInt(entries.getShort(index * ENTRY_BYTES + 10));
+    }
+}
@@ -0,0 +1,137 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the openings of played games and writes them as an
+ * {@link OpeningBook} file. Each move's weight is the number of games that
+ * played it in that position, capped at 65535.
+ */
+public final class OpeningBookBuilder {
+    public static final int DEFAULT_MAX_PLY = 12;
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    // Position key -> packed move -> games that played it
+    private final Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLY);
+    }
+
+    /**
+     * @param maxPly how many moves (plies) of each game to add
+     */
+    public OpeningBookBuilder(int maxPly) {
+        if (maxPly < 1) {
+            throw new IllegalArgumentException("Book depth must be at least 1 ply: " + maxPly);
+        }
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds the opening moves of a game. Games without moves are skipped, as
+     * are games whose position was set up by hand, since their moves did not
+     * start from the standard position.
+     *
+     * @param game a game with its move history
+     * @return true if the game was added
+     */
+    public boolean add(ChessGame game) {
+        List<ChessMove> played = game.getMoveHistory();
+        if (played.isEmpty()) {
+            return false;
+        }
+        int plies = Math.min(maxPly, played.size());
+        long[] keys = new long[plies];
+        int[] moves = new int[plies];
+
+        // Replay the whole game, so one set up by hand is recognised by not ending in its position
+        ChessGame replay = new ChessGame();
+        for (int i = 0; i < played.size(); i++) {
+            if (i < plies) {
+                keys[i] = replay.zobristKey();
+                moves[i] = Move.fromChessMove(played.get(i));
+            }
+            try {
+                replay.makeMove(played.get(i));
+            } catch (InvalidMoveException e) {
+                return false;
+            }
+        }
+        if (replay.zobristKey() != game.zobristKey()) {
+            return false;
+        }
+
+        for (int i = 0; i < plies; i++) {
+            counts.computeIfAbsent(keys[i], key -> new HashMap<>()).merge(moves[i], 1, Integer::sum);
+        }
+        games++;
+        return true;
+    }
+
+    /**
+     * @return the number of games added
+     */
+    public int games() {
+        return games;
+    }
+
+    /**
+     * @return the number of distinct positions added
+     */
+    public int positions() {
+        return counts.size();
+    }
+
+    /**
+     * Writes the book sorted for {@link OpeningBook}, each position's moves
+     * most played first.
+     *
+     * @param path the file to create or replace
+     * @return the number of entries written
+     * @throws IOException if the file cannot be written
+     */
+    public int write(Path path) throws IOException {
+        // Flipping the sign bit makes a signed sort order the keys as unsigned numbers
+        long[] keys = new long[counts.size()];
+        int index = 0;
+        for (long key : counts.keySet()) {
+            keys[index++] = key ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+
+        int written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (long sortKey : keys) {
+                long key = sortKey ^ Long.MIN_VALUE;
+                List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(counts.get(key).entrySet());
+                moves.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()));
+                for (Map.Entry<Integer, Integer> move : moves) {
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort(Math.min(move.getValue(), MAX_WEIGHT));
+                    out.writeInt(0);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,231 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.PositionHistory;
+import chess.tablebase.Tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Lazy SMP: several threads run the same iterative-deepening {@link Search}
+ * on the same root, sharing one {@link TranspositionTable}.
+ * <p>
+ * The threads do not divide the work explicitly. Each one stores what it
+ * finds in the shared table, and the others pick those results up as move
+ * ordering and cutoffs, so together they finish each iteration sooner than
+ * one thread would. Every other helper starts one ply deeper than the main
+ * thread, which spreads the threads over different parts of the tree.
+ * <p>
+ * The calling thread is the main thread: its iterations are reported, and
+ * when it stops, for any reason, the helpers stop too. Node limits count the
+ * main thread's nodes only, so results stay comparable across thread counts;
+ * reported node counts are the total over all threads. An instance runs one
+ * search at a time; {@link #stop()} may be called from any thread.
+ */
+public class ParallelSearch {
+    private static final String[] BENCHMARK_POSITIONS = {
+            Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+    };
+
+    private final TranspositionTable table;
+    private final EvaluationWeights weights;
+    private final ExecutorService executor;
+    // Search instances are reused between calls; index 0 is the main thread's
+    private final List<Search> workers = new ArrayList<>();
+    private volatile List<Search> active = List.of();
+    private Tablebase tablebase;
+
+    /**
+     * Creates a search that runs its helpers on daemon threads of its own.
+     */
+    public ParallelSearch(TranspositionTable table) {
+        this(table, EvaluationWeights.defaults(), Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param table    the table the threads share, which may be reused across searches
+     * @param weights  the evaluation weights to score positions with
+     * @param executor runs the helper threads; it needs a thread free for each helper
+     */
+    public ParallelSearch(TranspositionTable table, EvaluationWeights weights, ExecutorService executor) {
+        this.table = table;
+        this.weights = weights;
+        this.executor = executor;
+    }
+
+    /**
+     * Lets every thread score the tablebase's endings exactly; see {@link Search#setTablebase}.
+     *
+     * @param tablebase the tablebase to probe, or null to probe none
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+        for (Search search : workers) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Searches a position with several threads until a limit is reached or
+     * {@link #stop()} is called. The game is copied first and never modified.
+     *
+     * @param game     the position to search, with its move history for repetitions
+     * @param limits   when to stop
+     * @param threads  the number of threads, including the calling thread
+     * @param listener called with the result of each iteration the main thread completes, or null
+     * @return the main thread's result, with the node count of all threads
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, int threads, Consumer<SearchResult> listener) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Search needs at least 1 thread: " + threads);
+        }
+        while (workers.size() < threads) {
+            Search search = new Search(table, weights);
+            search.setTablebase(tablebase);
+            workers.add(search);
+        }
+        List<Search> searches = workers.subList(0, threads);
+        // Cleared before any thread starts, so a stop() from here on reaches every one
+        for (Search search : searches) {
+            search.resetStop();
+        }
+        active = searches;
+        table.newSearch();
+
+        // Copied here, on one thread: a deserialized board and history are indexed lazily on first
+        // read, so threads reading the caller's game at once could see them half built
+        ChessBoard board = game.getBoard().copy();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        PositionHistory history = game.getHistory().copy();
+
+        // Helpers run until the main thread stops them; only depth and time bound them on their own
+        SearchLimits helperLimits = new SearchLimits(limits.depth(), 0, limits.timeMillis());
+        List<Future<SearchResult>> helpers = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            Search helper = searches.get(i);
+            int startDepth = 1 + i % 2;
+            ChessBoard helperBoard = board.copy();
+            PositionHistory helperHistory = history.copy();
+            helpers.add(executor.submit(() -> helper.run(helperBoard, side, helperHistory, helperLimits, null,
+                    startDepth)));
+        }
+
+        Search main = searches.get(0);
+        Consumer<SearchResult> mainListener = listener == null ? null
+                : result -> listener.accept(withNodes(result, totalNodes(searches)));
+        SearchResult result;
+        try {
+            result = main.run(board, side, history, limits, mainListener, 1);
+        } finally {
+            for (int i = 1; i < threads; i++) {
+                searches.get(i).stop();
+            }
+            awaitHelpers(helpers);
+            active = List.of();
+        }
+        return withNodes(result, totalNodes(searches));
+    }
+
+    /**
+     * Asks a running search to finish as soon as possible on every thread.
+     * The search returns the main thread's last completed iteration.
+     */
+    public void stop() {
+        for (Search search : active) {
+            search.stop();
+        }
+    }
+
+    private static void awaitHelpers(List<Future<SearchResult>> helpers) {
+        boolean interrupted = false;
+        for (Future<SearchResult> helper : helpers) {
+            while (true) {
+                try {
+                    helper.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // Helpers are already stopping, so keep waiting and restore the flag afterwards
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search helper failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long totalNodes(List<Search> searches) {
+        long nodes = 0;
+        for (Search search : searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    private static SearchResult withNodes(SearchResult result, long nodes) {
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.timeMillis(),
+                result.principalVariation());
+    }
+
+    /**
+     * Benchmarks the speedup from extra threads: searches a fixed suite of
+     * positions to a fixed depth with each thread count and prints the total
+     * time, nodes per second and speedup over the first count.
+     * <p>
+     * Usage: {@code ParallelSearch [--depth n] [--hash mb] [threads...]},
+     * e.g. {@code ParallelSearch --depth 9 1 2 4 8 16 32}
+     */
+    public static void main(String[] args) {
+        int depth = 8;
+        long hashMegabytes = 256;
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--hash" -> hashMegabytes = Long.parseLong(args[++i]);
+                default -> threadCounts.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (threadCounts.isEmpty()) {
+            threadCounts = List.of(1, Runtime.getRuntime().availableProcessors());
+        }
+
+        TranspositionTable table = new TranspositionTable(hashMegabytes);
+        ParallelSearch search = new ParallelSearch(table);
+        long baseline = 0;
+        for (int threads : threadCounts) {
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (String fen : BENCHMARK_POSITIONS) {
+                // Each thread count starts cold, so earlier runs do not help later ones
+                table.clear();
+                nodes += search.search(Fen.toGame(fen), SearchLimits.depth(depth), threads, null).nodes();
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            if (baseline == 0) {
+                baseline = millis;
+            }
+            System.out.printf("threads %2d  time %7d ms  nodes %11d  nps %9d  speedup %.2f%n",
+                    threads, millis, nodes, nodes * 1000 / millis, (double) baseline / millis);
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.LegalMoveGenerator;
+import chess.Move;
+import chess.MoveList;
+import chess.PositionHistory;
+import chess.Zobrist;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Iterative-deepening principal variation search (PVS) over the game rules.
+ * <p>
+ * Each iteration searches one ply deeper than the last, starting with the
+ * previous iteration's principal variation so its cutoffs come early. Only
+ * the first move at each node gets the full window; the rest are searched
+ * with a null window around alpha and re-searched only if they beat it.
+ * At the horizon a quiescence search plays out captures and promotions until
+ * the position is quiet, so a leaf is never scored in the middle of an
+ * exchange. It skips captures that {@link StaticExchange} says lose material
+ * and captures too small to lift the score to alpha (delta pruning).
+ * <p>
+ * The search works on its own copy of the board with make/unmake and
+ * preallocated per-ply buffers, so a search allocates almost nothing per
+ * node. Results are kept in a {@link TranspositionTable}, which orders the
+ * best move from an earlier visit first and cuts off positions already
+ * searched deeply enough. With a fresh table the search is deterministic for
+ * depth and node limits. An instance runs one search at a time;
+ * {@link #stop()} may be called from any thread.
+ */
+public class Search {
+    public static final int MAX_PLY = 128;
+    public static final int MATE = 32000;
+    // Scores beyond this are mates found within MAX_PLY
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+    private static final int INFINITY = MATE + 1;
+    // How often (in nodes) the clock is read
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+    // Positional slack allowed on top of the material a quiescence capture wins before it is pruned
+    private static final int DELTA_MARGIN = 200;
+
+    private final HistoryTables historyTables = new HistoryTables();
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    // Quiet moves searched at each ply without a cutoff, penalised in the history table on a cutoff
+    private final int[][] failedQuiets = new int[MAX_PLY][256];
+    // The move made at each ply of the current path
+    private final int[] pathMoves = new int[MAX_PLY];
+    // Triangular PV table: pvTable[ply] holds the best line found from that ply
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    // Position keys along the current search path, for repetition checks
+    private final long[] pathKeys = new long[MAX_PLY + 1];
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private Tablebase tablebase;
+    private volatile boolean stopRequested;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor side;
+    private PositionHistory gameHistory;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private int[] previousPv = new int[0];
+    private boolean followPv;
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param table the table to keep results in, which may be reused across searches
+     */
+    public Search(TranspositionTable table) {
+        this(table, EvaluationWeights.defaults());
+    }
+
+    /**
+     * @param table   the table to keep results in, which may be reused across searches
+     * @param weights the evaluation weights to score positions with
+     */
+    public Search(TranspositionTable table, EvaluationWeights weights) {
+        this.table = table;
+        this.evaluator = new Evaluator(weights);
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(historyTables);
+        }
+    }
+
+    /**
+     * Lets the search score positions in the tablebase's endings exactly
+     * instead of searching them. Set it before a search starts.
+     *
+     * @param tablebase the tablebase to probe, or null to probe none
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Searches a position until a limit is reached.
+     *
+     * @see #search(ChessGame, SearchLimits, Consumer)
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, null);
+    }
+
+    /**
+     * Searches a position until a limit is reached or {@link #stop()} is
+     * called. The game is copied first and never modified.
+     *
+     * @param game      the position to search, with its move history for repetitions
+     * @param limits    when to stop
+     * @param listener  called with the result of each completed iteration, or null
+     * @return the result of the deepest completed iteration; if even the first
+     * iteration was cut short, the first legal move with a static score
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> listener) {
+        stopRequested = false;
+        table.newSearch();
+        return run(game.getBoard().copy(), game.getTeamTurn(), game.getHistory(), limits, listener, 1);
+    }
+
+    /**
+     * Runs iterative deepening from startDepth without starting a new table
+     * generation or clearing a pending stop, for use as one of several
+     * threads searching the same position (see {@link ParallelSearch}).
+     *
+     * @param board   the position, which the search owns until it returns
+     * @param history the game's earlier positions, for repetitions; only read,
+     *                but not safe to share between threads (its counts are built lazily)
+     */
+    SearchResult run(ChessBoard board, ChessGame.TeamColor side, PositionHistory history, SearchLimits limits,
+                     Consumer<SearchResult> listener, int startDepth) {
+        long start = System.nanoTime();
+        this.board = board;
+        this.side = side;
+        evaluator.reset(board);
+        gameHistory = history;
+        nodes = 0;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.timeMillis() > 0 ? start + limits.timeMillis() * 1_000_000L : Long.MAX_VALUE;
+        aborted = false;
+        previousPv = new int[0];
+        historyTables.newSearch();
+        pathKeys[0] = positionKey();
+
+        MoveList rootMoves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = isInCheck() ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, elapsedMillis(start), List.of());
+        }
+
+        SearchResult result = null;
+        for (int depth = startDepth; depth <= limits.depth(); depth++) {
+            followPv = true;
+            int score = pvs(depth, 0, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+
+            previousPv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, pvLength[0]);
+            result = new SearchResult(Move.toChessMove(previousPv[0]), score, depth, nodes,
+                    elapsedMillis(start), toChessMoves(previousPv));
+            if (listener != null) {
+                listener.accept(result);
+            }
+
+            // A forced mate will not get any shorter with more depth
+            if (Math.abs(score) > MATE_BOUND && MATE - Math.abs(score) <= depth) {
+                break;
+            }
+        }
+
+        if (result == null) {
+            int move = rootMoves.get(0);
+            result = new SearchResult(Move.toChessMove(move), evaluator.evaluate(side), 0, nodes,
+                    elapsedMillis(start), List.of(Move.toChessMove(move)));
+        }
+        return result;
+    }
+
+    /**
+     * Asks a running search to finish as soon as possible. The search returns
+     * its last completed iteration.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clears a stop requested before a search started; see {@link #run}.
+     */
+    void resetStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * @return the positions visited by the current or last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int pvs(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (checkLimits()) {
+            return 0;
+        }
+        nodes++;
+
+        if (ply > 0 && isDraw(ply)) {
+            return 0;
+        }
+        if (ply > 0 && tablebase != null && Long.bitCount(board.getOccupancy()) <= Tablebase.MAX_PIECES) {
+            TablebaseResult solved = tablebase.probe(board, side);
+            if (solved != null) {
+                return tablebaseScore(solved, ply);
+            }
+        }
+
+        boolean inCheck = isInCheck();
+        // Look one ply further when in check, so a mate threat is never cut off at the horizon
+        if (inCheck) {
+            depth++;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(side);
+        }
+        // The check extension means the horizon is never reached in check
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta, false);
+        }
+
+        long key = pathKeys[ply];
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            // Cut off only at null-window nodes, so the PV is always searched out in full
+            if (ply > 0 && beta - alpha == 1 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        // Until the first move of a node is searched, the search is still on the previous iteration's PV
+        if (followPv) {
+            if (ply < previousPv.length) {
+                hashMove = previousPv[ply];
+            } else {
+                followPv = false;
+            }
+        }
+
+        int previousMove = ply > 0 ? pathMoves[ply - 1] : Move.NONE;
+        MovePicker picker = pickers[ply];
+        picker.init(board, side, hashMove, ply, previousMove, inCheck);
+
+        int originalAlpha = alpha;
+        int bestMove = Move.NONE;
+        int bestScore = -INFINITY;
+        int moveCount = 0;
+        int failedQuietCount = 0;
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            moveCount++;
+            boolean quiet = !Move.isCapture(move) && !Move.isPromotion(move);
+
+            long undo = makeMove(move, ply);
+            int score;
+            if (moveCount == 1) {
+                score = -pvs(depth - 1, ply + 1, -beta, -alpha);
+                followPv = false;
+            } else {
+                score = -pvs(depth - 1, ply + 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -pvs(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            unmakeMove(move, undo);
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            historyTables.recordCutoff(board, side, ply, previousMove, move, depth,
+                                    failedQuiets[ply], failedQuietCount);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (quiet && failedQuietCount < failedQuiets[ply].length) {
+                failedQuiets[ply][failedQuietCount++] = move;
+            }
+        }
+
+        if (moveCount == 0) {
+            // Prefer the quickest mate, and the slowest when being mated
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : alpha > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        table.store(key, bestMove, bestScore, depth, bound, ply);
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures and promotions, or every evasion when in check.
+     * The side to move may also stand pat on the static score, since it is
+     * never forced to capture.
+     */
+    private int quiescence(int ply, int alpha, int beta, boolean inCheck) {
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(side);
+        }
+
+        int standPat = 0;
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            standPat = evaluator.evaluate(side);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+            bestScore = standPat;
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.initQuiescence(board, side, inCheck);
+        int moveCount = 0;
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            moveCount++;
+            // Delta pruning: even winning the material outright would leave the score below alpha
+            if (!inCheck && standPat + materialGain(move) + DELTA_MARGIN <= alpha) {
+                continue;
+            }
+
+            long undo = makeMove(move, ply);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            unmakeMove(move, undo);
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (inCheck && moveCount == 0) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (checkLimits()) {
+            return 0;
+        }
+        nodes++;
+        return quiescence(ply, alpha, beta, isInCheck());
+    }
+
+    /**
+     * @return the material a capture or promotion wins if it is not recaptured
+     */
+    private int materialGain(int move) {
+        int gain = 0;
+        if (Move.hasFlag(move, Move.EN_PASSANT)) {
+            gain = Evaluation.pieceValue(ChessPiece.PieceType.PAWN);
+        } else if (Move.isCapture(move)) {
+            gain = Evaluation.pieceValue(board.getPiece(Move.to(move)).getPieceType());
+        }
+        if (Move.isPromotion(move)) {
+            gain += Evaluation.pieceValue(Move.promotion(move)) - Evaluation.pieceValue(ChessPiece.PieceType.PAWN);
+        }
+        return gain;
+    }
+
+    /**
+     * @return the score of a solved position at ply, with mates counted from the root like any other
+     */
+    private static int tablebaseScore(TablebaseResult solved, int ply) {
+        return switch (solved.outcome()) {
+            case WIN -> MATE - ply - solved.pliesToMate();
+            case LOSS -> -MATE + ply + solved.pliesToMate();
+            case DRAW -> 0;
+        };
+    }
+
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, childLength - ply - 1);
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    private long makeMove(int move, int ply) {
+        evaluator.makeMove(board, move);
+        long undo = board.makeMove(move);
+        pathMoves[ply] = move;
+        side = opposite(side);
+        pathKeys[ply + 1] = positionKey();
+        return undo;
+    }
+
+    private void unmakeMove(int move, long undo) {
+        board.unmakeMove(move, undo);
+        evaluator.unmakeMove();
+        side = opposite(side);
+    }
+
+    /**
+     * @return true if the position at ply is drawn by the fifty-move rule or
+     * repeats a position from the search path or the game
+     */
+    private boolean isDraw(int ply) {
+        int halfmoveClock = board.getHalfmoveClock();
+        if (halfmoveClock >= 100) {
+            return true;
+        }
+
+        // Only positions since the last irreversible move can repeat, and only with the same side to move
+        long key = pathKeys[ply];
+        for (int i = ply - 2; i >= 0 && i >= ply - halfmoveClock; i -= 2) {
+            if (pathKeys[i] == key) {
+                return true;
+            }
+        }
+        // The game's history is only reachable if nothing irreversible happened in the search path
+        return halfmoveClock >= ply && gameHistory.count(key) > 0;
+    }
+
+    private boolean isInCheck() {
+        int king = board.getKingSquare(side);
+        return king >= 0 && board.isSquareAttacked(king, opposite(side));
+    }
+
+    /**
+     * @return true if the search must stop now; the clock is only read every few nodes
+     */
+    private boolean checkLimits() {
+        if (aborted) {
+            return true;
+        }
+        if (nodes >= nodeLimit || stopRequested
+                || (nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * @return the same key as {@link ChessGame#zobristKey()} for the search board
+     */
+    private long positionKey() {
+        long key = board.zobristKey() ^ board.stateKey();
+        return side == ChessGame.TeamColor.BLACK ? key ^ Zobrist.blackToMove() : key;
+    }
+
+    private static List<ChessMove> toChessMoves(int[] moves) {
+        List<ChessMove> chessMoves = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            chessMoves.add(Move.toChessMove(move));
+        }
+        return chessMoves;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static ChessGame.TeamColor opposite(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,43 @@
+package chess.engine;
+
+/**
+ * When a search should stop. A search ends at whichever limit it reaches
+ * first; a node or time limit of 0 means no limit.
+ *
+ * @param depth      the deepest iteration to run, 1 to {@link #MAX_DEPTH}
+ * @param nodes      the most positions to visit, or 0 for no limit
+ * @param timeMillis the longest time to search in milliseconds, or 0 for no limit
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis) {
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be 1-" + MAX_DEPTH + ": " + depth);
+        }
+        if (nodes < 0 || timeMillis < 0) {
+            throw new IllegalArgumentException("Node and time limits cannot be negative");
+        }
+    }
+
+    /**
+     * @return limits that search to a fixed depth
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * @return limits that stop after a number of nodes, which gives the same result on every run
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, 0);
+    }
+
+    /**
+     * @return limits that stop after a number of milliseconds
+     */
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(MAX_DEPTH, 0, timeMillis);
+    }
+}
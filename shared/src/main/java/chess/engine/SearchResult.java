@@ -0,0 +1,48 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a completed search iteration.
+ *
+ * @param bestMove           the move to play, or null if the side to move has no legal moves
+ * @param score              the position's value in centipawns for the side to move; mates
+ *                           are scored beyond {@link Search#MATE_BOUND}
+ * @param depth              the depth of the last completed iteration
+ * @param nodes              the positions visited across all iterations
+ * @param timeMillis         the time spent searching
+ * @param principalVariation the expected line of play, starting with bestMove
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long timeMillis,
+                           List<ChessMove> principalVariation) {
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) > Search.MATE_BOUND;
+    }
+
+    /**
+     * @return moves until mate: positive if the side to move mates, negative
+     * if it is mated, 0 if the score is not a mate
+     */
+    public int mateIn() {
+        if (score > Search.MATE_BOUND) {
+            return (Search.MATE - score + 1) / 2;
+        }
+        if (score < -Search.MATE_BOUND) {
+            return -(Search.MATE + score) / 2;
+        }
+        return 0;
+    }
+
+    /**
+     * @return search speed in nodes per second
+     */
+    public long nodesPerSecond() {
+        return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+    }
+}
@@ -0,0 +1,197 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+/**
+ * Static exchange evaluation (SEE): the material a move wins or loses if both
+ * sides then keep capturing on its target square, each always recapturing
+ * with its least valuable piece and free to stop when going on would lose.
+ * <p>
+ * The exchange is played out on attack bitboards alone, without making any
+ * moves. Removing each capturer from the occupancy uncovers the sliders
+ * lined up behind it (x-rays). Pins and checks are ignored, so the result is
+ * an estimate, but one cheap enough to compute for every capture in a search.
+ */
+public final class StaticExchange {
+    // Capturing with the king is only possible when nothing recaptures, so its value just has to dominate
+    private static final int KING_VALUE = 20000;
+    // Least valuable first: the order attackers are tried in
+    private static final ChessPiece.PieceType[] ATTACKER_ORDER = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING,
+    };
+    // No exchange is longer than the 32 pieces on the board
+    private static final int MAX_EXCHANGE = 32;
+
+    private StaticExchange() {
+    }
+
+    /**
+     * @param board the position before the move
+     * @param move  a legal packed move (see {@link Move}); quiet moves are
+     *              scored by whether the piece can be taken on its new square
+     * @return the material the moving side expects to gain, in centipawns;
+     * negative if the move loses material
+     */
+    public static int evaluate(ChessBoard board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece mover = board.getPiece(from);
+        ChessGame.TeamColor side = mover.getTeamColor();
+
+        long occupancy = board.getOccupancy() & ~(1L << from);
+        int[] gain = new int[MAX_EXCHANGE];
+        if (Move.hasFlag(move, Move.EN_PASSANT)) {
+            gain[0] = value(ChessPiece.PieceType.PAWN);
+            occupancy &= ~(1L << ((from & ~7) | (to & 7)));
+        } else {
+            ChessPiece victim = board.getPiece(to);
+            gain[0] = victim == null ? 0 : value(victim.getPieceType());
+        }
+
+        // The piece standing on the square, which the next capture wins
+        int onSquare = value(mover.getPieceType());
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            gain[0] += value(promotion) - value(ChessPiece.PieceType.PAWN);
+            onSquare = value(promotion);
+        }
+
+        long attackers = attackers(board, to, occupancy);
+        int depth = 0;
+        side = opposite(side);
+        while (depth < MAX_EXCHANGE - 1) {
+            long ownAttackers = attackers & board.getOccupancy(side);
+            if (ownAttackers == 0) {
+                break;
+            }
+
+            ChessPiece.PieceType capturer = null;
+            long capturerBit = 0;
+            for (ChessPiece.PieceType type : ATTACKER_ORDER) {
+                long pieces = ownAttackers & board.getPieces(side, type);
+                if (pieces != 0) {
+                    capturer = type;
+                    capturerBit = pieces & -pieces;
+                    break;
+                }
+            }
+            // The king may only take last, when nothing can take it back
+            if (capturer == ChessPiece.PieceType.KING
+                    && (attackers & ~capturerBit & board.getOccupancy(opposite(side))) != 0) {
+                break;
+            }
+
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            onSquare = value(capturer);
+            occupancy &= ~capturerBit;
+            // Recomputing with the capturer gone reveals any slider behind it
+            attackers = attackers(board, to, occupancy);
+            side = opposite(side);
+        }
+
+        // Each side may decline to recapture, so work back keeping the better choice at each step
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * Decides whether a move wins at least a given amount in the exchange,
+     * which is all the search needs. Tracking only the balance against the
+     * threshold needs no swap list, and the exchange stops as soon as its
+     * outcome is settled.
+     *
+     * @param board     the position before the move
+     * @param move      a legal packed move
+     * @param threshold the least gain in centipawns to accept
+     * @return true if {@link #evaluate} would be at least threshold
+     */
+    public static boolean isAtLeast(ChessBoard board, int move, int threshold) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece mover = board.getPiece(from);
+        ChessGame.TeamColor side = mover.getTeamColor();
+
+        long occupancy = board.getOccupancy() & ~(1L << from);
+        int captured;
+        if (Move.hasFlag(move, Move.EN_PASSANT)) {
+            captured = value(ChessPiece.PieceType.PAWN);
+            occupancy &= ~(1L << ((from & ~7) | (to & 7)));
+        } else {
+            ChessPiece victim = board.getPiece(to);
+            captured = victim == null ? 0 : value(victim.getPieceType());
+        }
+        int onSquare = value(mover.getPieceType());
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            captured += value(promotion) - value(ChessPiece.PieceType.PAWN);
+            onSquare = value(promotion);
+        }
+
+        // Even keeping the capture outright is not enough
+        int balance = captured - threshold;
+        if (balance < 0) {
+            return false;
+        }
+        // Even losing the moved piece for nothing is still enough
+        balance = onSquare - balance;
+        if (balance <= 0) {
+            return true;
+        }
+
+        // Whether the moving side reaches the threshold if the exchange stopped here
+        boolean result = true;
+        long attackers = attackers(board, to, occupancy);
+        while (true) {
+            side = opposite(side);
+            long ownAttackers = attackers & board.getOccupancy(side);
+            if (ownAttackers == 0) {
+                break;
+            }
+            result = !result;
+
+            ChessPiece.PieceType capturer = ChessPiece.PieceType.KING;
+            long capturerBit = 0;
+            for (ChessPiece.PieceType type : ATTACKER_ORDER) {
+                long pieces = ownAttackers & board.getPieces(side, type);
+                if (pieces != 0) {
+                    capturer = type;
+                    capturerBit = pieces & -pieces;
+                    break;
+                }
+            }
+            if (capturer == ChessPiece.PieceType.KING) {
+                // A king capture stands only if nothing can take the king back
+                return (attackers & board.getOccupancy(opposite(side))) != 0 ? !result : result;
+            }
+
+            balance = value(capturer) - balance;
+            if (balance < (result ? 1 : 0)) {
+                break;
+            }
+            occupancy &= ~capturerBit;
+            attackers = attackers(board, to, occupancy);
+        }
+        return result;
+    }
+
+    private static long attackers(ChessBoard board, int square, long occupancy) {
+        return (board.attackersTo(square, occupancy, ChessGame.TeamColor.WHITE)
+                | board.attackersTo(square, occupancy, ChessGame.TeamColor.BLACK)) & occupancy;
+    }
+
+    private static int value(ChessPiece.PieceType type) {
+        return type == ChessPiece.PieceType.KING ? KING_VALUE : Evaluation.pieceValue(type);
+    }
+
+    private static ChessGame.TeamColor opposite(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
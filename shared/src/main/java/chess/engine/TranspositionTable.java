@@ -0,0 +1,259 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results keyed by position Zobrist key,
+ * safe to share between search threads without locks.
+ * <p>
+ * Each entry is two longs: the packed data, and the key XORed with that data.
+ * Threads read and write the two halves independently, so a reader may see
+ * halves from two different writes; the XOR check then fails and the entry
+ * reads as a miss instead of returning another position's data.
+ * <p>
+ * Entries are grouped in buckets of two. The first slot keeps the deepest
+ * result from the current search, the second always takes the newest, so a
+ * deep result is not evicted by a flood of shallow ones.
+ * <p>
+ * The table is a single {@code long[]} on the heap (up to 16 GB), or
+ * direct buffers outside the heap, which the garbage collector never scans
+ * or copies.
+ */
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    // Score is at least the stored value (the search failed high)
+    public static final int BOUND_LOWER = 2;
+    // Score is at most the stored value (the search failed low)
+    public static final int BOUND_UPPER = 3;
+
+    private static final int BUCKET_BYTES = 32;
+    private static final int LONGS_PER_BUCKET = 4;
+    // Off-heap buffers are limited to 2 GB each, so the table is split in 1 GB chunks
+    private static final int CHUNK_SHIFT = 25;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    // Data layout: move 0-18, score 19-34, depth 35-42, bound 43-44, generation 45-50
+    private static final int SCORE_SHIFT = 19;
+    private static final int DEPTH_SHIFT = 35;
+    private static final int BOUND_SHIFT = 43;
+    private static final int GENERATION_SHIFT = 45;
+    private static final int MOVE_MASK = (1 << SCORE_SHIFT) - 1;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private final long buckets;
+    private final long[] table;
+    private final ByteBuffer[] chunks;
+    private volatile int generation;
+
+    /**
+     * Creates a table on the heap.
+     *
+     * @param megabytes the table size; it holds 32768 entries per megabyte
+     */
+    public TranspositionTable(long megabytes) {
+        this(megabytes, false);
+    }
+
+    /**
+     * @param megabytes the table size; it holds 32768 entries per megabyte
+     * @param offHeap   true to allocate the table outside the Java heap
+     */
+    public TranspositionTable(long megabytes, boolean offHeap) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table size must be at least 1 MB: " + megabytes);
+        }
+        buckets = megabytes * 1024 * 1024 / BUCKET_BYTES;
+        if (offHeap) {
+            table = null;
+            chunks = new ByteBuffer[(int) ((buckets + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long chunkBuckets = Math.min(CHUNK_MASK + 1, buckets - ((long) i << CHUNK_SHIFT));
+                chunks[i] = ByteBuffer.allocateDirect((int) (chunkBuckets * BUCKET_BYTES))
+                        .order(ByteOrder.nativeOrder());
+            }
+        } else {
+            if (buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Heap transposition tables are limited to 16 GB; "
+                        + "allocate it off-heap instead");
+            }
+            table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+            chunks = null;
+        }
+    }
+
+    /**
+     * Marks the start of a new search, so results from earlier searches are
+     * replaced in preference to current ones.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Empties the table. Must not be called during a search.
+     */
+    public void clear() {
+        if (table != null) {
+            Arrays.fill(table, 0);
+        } else {
+            for (ByteBuffer chunk : chunks) {
+                for (int offset = 0; offset < chunk.capacity(); offset += Long.BYTES) {
+                    chunk.putLong(offset, 0);
+                }
+            }
+        }
+        generation = 0;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the position's Zobrist key
+     * @return the entry's data, or 0 if the position is not stored; decode it
+     * with {@link #move(long)}, {@link #score(long, int)}, {@link #depth(long)}
+     * and {@link #bound(long)}
+     */
+    public long probe(long key) {
+        long bucket = bucketIndex(key);
+        for (int slot = 0; slot < 2; slot++) {
+            long data = read(bucket, slot * 2 + 1);
+            if (data != 0 && (read(bucket, slot * 2) ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result.
+     *
+     * @param key   the position's Zobrist key
+     * @param move  the best move found as a packed {@link chess.Move}, or {@link chess.Move#NONE}
+     * @param score the score relative to the side to move
+     * @param depth the remaining depth the score was searched to, 0-255
+     * @param bound {@link #BOUND_EXACT}, {@link #BOUND_LOWER} or {@link #BOUND_UPPER}
+     * @param ply   the distance from the root, to store mate scores relative to this position
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        long bucket = bucketIndex(key);
+        long preferred = read(bucket, 1);
+        boolean samePosition = preferred != 0 && (read(bucket, 0) ^ preferred) == key;
+
+        // Keep the move from an earlier visit if this one did not find a better one
+        if (move == 0 && samePosition) {
+            move = move(preferred);
+        }
+        long data = pack(move, toStored(score, ply), depth, bound, generation);
+
+        int slot;
+        if (preferred == 0 || samePosition || depth >= depth(preferred)
+                || generation(preferred) != generation) {
+            slot = 0;
+        } else {
+            slot = 1;
+        }
+        write(bucket, slot * 2, key ^ data);
+        write(bucket, slot * 2 + 1, data);
+    }
+
+    /**
+     * @return the approximate fraction of slots used by the current search, in thousandths
+     */
+    public int hashfull() {
+        long sample = Math.min(500, buckets);
+        int used = 0;
+        for (long bucket = 0; bucket < sample; bucket++) {
+            for (int slot = 0; slot < 2; slot++) {
+                long data = read(bucket, slot * 2 + 1);
+                if (data != 0 && generation(data) == generation) {
+                    used++;
+                }
+            }
+        }
+        return (int) (used * 1000 / (sample * 2));
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public long capacity() {
+        return buckets * 2;
+    }
+
+    public static int move(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    /**
+     * @param ply the distance from the root of the position probed
+     * @return the stored score, with mate scores converted back to distance from the root
+     */
+    public static int score(long data, int ply) {
+        int score = (int) ((data >>> SCORE_SHIFT) & 0xFFFF) - 0x8000;
+        if (score > Search.MATE_BOUND) {
+            return score - ply;
+        }
+        if (score < -Search.MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & GENERATION_MASK);
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int generation) {
+        return (move & MOVE_MASK)
+                | (long) (score + 0x8000) << SCORE_SHIFT
+                | (long) Math.min(depth, 0xFF) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) generation << GENERATION_SHIFT;
+    }
+
+    /**
+     * Mate scores are distances from the root; stored, they become distances
+     * from this position so they stay correct when reached from another path.
+     */
+    private static int toStored(int score, int ply) {
+        if (score > Search.MATE_BOUND) {
+            return score + ply;
+        }
+        if (score < -Search.MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private long bucketIndex(long key) {
+        // Maps the key onto [0, buckets) without a power-of-two size or a division
+        return Math.unsignedMultiplyHigh(key, buckets);
+    }
+
+    private long read(long bucket, int word) {
+        if (table != null) {
+            return table[(int) (bucket * LONGS_PER_BUCKET) + word];
+        }
+        return chunks[(int) (bucket >>> CHUNK_SHIFT)]
+                .getLong((int) ((bucket & CHUNK_MASK) * BUCKET_BYTES) + word * Long.BYTES);
+    }
+
+    private void write(long bucket, int word, long value) {
+        if (table != null) {
+            table[(int) (bucket * LONGS_PER_BUCKET) + word] = value;
+        } else {
+            chunks[(int) (bucket >>> CHUNK_SHIFT)]
+                    .putLong((int) ((bucket & CHUNK_MASK) * BUCKET_BYTES) + word * Long.BYTES, value);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * The material sets the tablebase covers: a king and one or two pieces
+ * against a lone king. The side with the pieces is the strong side.
+ */
+public enum Material {
+    KQK(ChessPiece.PieceType.QUEEN),
+    KRK(ChessPiece.PieceType.ROOK),
+    KPK(ChessPiece.PieceType.PAWN),
+    KBNK(ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT);
+
+    private final ChessPiece.PieceType[] pieces;
+
+    Material(ChessPiece.PieceType... pieces) {
+        this.pieces = pieces;
+    }
+
+    /**
+     * @return the number of pieces besides the strong king
+     */
+    public int pieceCount() {
+        return pieces.length;
+    }
+
+    /**
+     * @return the strong side's piece besides its king at index, in index order
+     */
+    public ChessPiece.PieceType piece(int index) {
+        return pieces[index];
+    }
+
+    /**
+     * @return true if a pawn is on the board, which rules out all symmetry but left-right
+     */
+    public boolean hasPawns() {
+        return pieces[0] == ChessPiece.PieceType.PAWN;
+    }
+
+    /**
+     * @return the name of the table's file within a tablebase directory
+     */
+    public String fileName() {
+        return name() + ".tb";
+    }
+
+    /**
+     * @param board  a position
+     * @param strong the side that would have the pieces
+     * @return the material set of the position, or null if it is not one of these
+     */
+    public static Material of(ChessBoard board, ChessGame.TeamColor strong) {
+        ChessGame.TeamColor weak = strong == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        if (Long.bitCount(board.getOccupancy(weak)) != 1 || board.getKingSquare(weak) < 0
+                || board.getKingSquare(strong) < 0) {
+            return null;
+        }
+        long others = board.getOccupancy(strong) & ~(1L << board.getKingSquare(strong));
+        for (Material material : values()) {
+            if (Long.bitCount(others) != material.pieces.length) {
+                continue;
+            }
+            long remaining = others;
+            for (ChessPiece.PieceType type : material.pieces) {
+                remaining &= ~board.getPieces(strong, type);
+            }
+            if (remaining == 0 && matchesEach(board, strong, material)) {
+                return material;
+            }
+        }
+        return null;
+    }
+
+    // Rules out two of one piece standing in for one each of two
+    private static boolean matchesEach(ChessBoard board, ChessGame.TeamColor strong, Material material) {
+        for (ChessPiece.PieceType type : material.pieces) {
+            if (Long.bitCount(board.getPieces(strong, type)) != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,110 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Exact results for the endings in {@link Material}, read from the files
+ * {@link TablebaseGenerator} writes.
+ * <p>
+ * Each file is an 8-byte header (magic number, entry count) followed by one
+ * byte per {@link TablebaseIndex} index: 0 for a draw, {@link #ILLEGAL} for
+ * an impossible position, otherwise the plies to mate plus one. Files are
+ * memory-mapped and read with absolute gets, so a probe costs an index
+ * computation and one byte read, and a tablebase can be shared by any
+ * number of threads.
+ */
+public final class Tablebase {
+    static final int MAGIC = 0x43544231; // "CTB1"
+    static final int HEADER_BYTES = 8;
+    static final int ILLEGAL = 0xFF;
+    // The most pieces, kings included, in any covered ending
+    public static final int MAX_PIECES = 4;
+
+    private final Map<Material, ByteBuffer> tables;
+    private final Map<Material, TablebaseIndex> indexes = new EnumMap<>(Material.class);
+
+    private Tablebase(Map<Material, ByteBuffer> tables) {
+        this.tables = tables;
+        for (Material material : tables.keySet()) {
+            indexes.put(material, new TablebaseIndex(material));
+        }
+    }
+
+    /**
+     * Maps every table file found in a directory; endings without a file
+     * are not covered.
+     *
+     * @param directory the directory holding the files
+     * @return the tablebase
+     * @throws IOException if a file cannot be read or is not a table for its ending
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Map<Material, ByteBuffer> tables = new EnumMap<>(Material.class);
+        for (Material material : Material.values()) {
+            Path path = directory.resolve(material.fileName());
+            if (!Files.exists(path)) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long expected = HEADER_BYTES + (long) new TablebaseIndex(material).size();
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (channel.size() != expected || mapped.getInt(0) != MAGIC
+                        || mapped.getInt(4) != expected - HEADER_BYTES) {
+                    throw new IOException("Not a " + material + " table: " + path);
+                }
+                tables.put(material, mapped);
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    /**
+     * @return true if the ending's table was found
+     */
+    public boolean contains(Material material) {
+        return tables.containsKey(material);
+    }
+
+    /**
+     * Looks up a position. The fifty-move rule is ignored.
+     *
+     * @param board      the position
+     * @param sideToMove the side to move
+     * @return the exact result for sideToMove, or null if the ending is not
+     * covered, castling is still possible, or the position is illegal
+     */
+    public TablebaseResult probe(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        if (Long.bitCount(board.getOccupancy()) > MAX_PIECES || board.getCastlingRights() != 0) {
+            return null;
+        }
+        ChessGame.TeamColor strong = Long.bitCount(board.getOccupancy(ChessGame.TeamColor.WHITE)) > 1
+                ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        Material material = Material.of(board, strong);
+        if (material == null || !tables.containsKey(material)) {
+            return null;
+        }
+
+        // Tables are built with the strong side moving up the board
+        int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+        ChessGame.TeamColor weak = strong == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int first = Long.numberOfTrailingZeros(board.getPieces(strong, material.piece(0))) ^ flip;
+        int second = material.pieceCount() > 1
+                ? Long.numberOfTrailingZeros(board.getPieces(strong, material.piece(1))) ^ flip : 0;
+        int index = indexes.get(material).index(board.getKingSquare(strong) ^ flip,
+                board.getKingSquare(weak) ^ flip, first, second, sideToMove == strong);
+
+        int value = tables.get(material).get(HEADER_BYTES + index) & 0xFF;
+        return value == ILLEGAL ? null : TablebaseResult.fromValue(value);
+    }
+}
@@ -0,0 +1,395 @@
+package chess.tablebase;
+
+import chess.Bitboards;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MagicBitboards;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds tablebase files by retrograde analysis.
+ * <p>
+ * Every index of an ending is visited in passes. Pass 0 marks impossible
+ * positions and the positions where the weak side is checkmated. Pass p
+ * then finds every position mated in exactly p plies: on odd passes, strong
+ * side to move, those with a move to a position lost in p - 1; on even
+ * passes, weak side to move, those where every move leads to a position
+ * already won. The passes stop once one finds nothing new, and whatever is
+ * left unresolved is a draw. Each pass only writes positions with one side
+ * to move and only reads positions with the other, so a pass is split
+ * across threads with no locking.
+ * <p>
+ * A pawn promotion leads into another ending's table, so KPK is built after
+ * KQK and KRK. A capture by the weak king always leaves a draw.
+ */
+public final class TablebaseGenerator {
+    // Indexes per task; small enough to balance, large enough to keep task overhead negligible
+    private static final int SPLIT_SIZE = 1 << 14;
+    private static final int MAX_PLIES = 253;
+
+    private final ForkJoinPool pool;
+    private final Map<Material, byte[]> tables = new EnumMap<>(Material.class);
+
+    /**
+     * @param pool the pool to split each pass across
+     */
+    public TablebaseGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Builds an ending's table, and any it depends on, unless already built.
+     *
+     * @return the table: one byte per index, as stored after the file header
+     */
+    public byte[] generate(Material material) {
+        byte[] table = tables.get(material);
+        if (table == null) {
+            if (material == Material.KPK) {
+                generate(Material.KQK);
+                generate(Material.KRK);
+            }
+            table = new Generation(material).run();
+            tables.put(material, table);
+        }
+        return table;
+    }
+
+    /**
+     * Builds a table and writes it into a directory as {@link Material#fileName()}.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Material material, Path directory) throws IOException {
+        byte[] table = generate(material);
+        Path path = directory.resolve(material.fileName());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(table.length);
+            out.write(table);
+        }
+    }
+
+    /**
+     * Writes every table into a directory.
+     * Usage: {@code TablebaseGenerator <directory> [threads]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TablebaseGenerator <directory> [threads]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        TablebaseGenerator generator = new TablebaseGenerator(new ForkJoinPool(threads));
+        for (Material material : Material.values()) {
+            long start = System.nanoTime();
+            generator.write(material, directory);
+            System.out.printf("%-5s %,12d positions  %6d ms%n", material,
+                    generator.tables.get(material).length, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * The state of building one ending.
+     */
+    private final class Generation {
+        private final Material material;
+        private final TablebaseIndex index;
+        private final byte[] table;
+        private final ChessPiece.PieceType firstType;
+        private final ChessPiece.PieceType secondType;
+        private final boolean twoPieces;
+        // Promotion targets, for KPK only
+        private final TablebaseIndex queenIndex = new TablebaseIndex(Material.KQK);
+        private final TablebaseIndex rookIndex = new TablebaseIndex(Material.KRK);
+        private final byte[] queenTable;
+        private final byte[] rookTable;
+
+        Generation(Material material) {
+            this.material = material;
+            this.index = new TablebaseIndex(material);
+            this.table = new byte[index.size()];
+            this.firstType = material.piece(0);
+            this.twoPieces = material.pieceCount() > 1;
+            this.secondType = twoPieces ? material.piece(1) : null;
+            this.queenTable = tables.get(Material.KQK);
+            this.rookTable = tables.get(Material.KRK);
+        }
+
+        byte[] run() {
+            // A promotion can lead to a mate longer than any found in this table so far
+            int minimumPasses = 0;
+            if (material.hasPawns()) {
+                minimumPasses = Math.max(longest(queenTable), longest(rookTable)) + 2;
+            }
+
+            pool.invoke(new PassTask(this, 0, 0, table.length));
+            for (int pass = 1; pass <= MAX_PLIES; pass++) {
+                long found = pool.invoke(new PassTask(this, pass, 0, table.length));
+                if (found == 0 && pass > minimumPasses) {
+                    break;
+                }
+            }
+            return table;
+        }
+
+        private static int longest(byte[] table) {
+            int longest = 0;
+            for (byte value : table) {
+                int plies = (value & 0xFF) - 1;
+                if (value != (byte) Tablebase.ILLEGAL && plies > longest) {
+                    longest = plies;
+                }
+            }
+            return longest;
+        }
+
+        /**
+         * Runs one pass over the indexes from start to end.
+         *
+         * @return the number of positions resolved
+         */
+        long pass(int pass, int start, int end) {
+            long found = 0;
+            // Odd passes resolve strong-to-move indexes (even), even passes weak-to-move ones (odd)
+            int first = pass == 0 ? start : start + ((start & 1) == (pass & 1) ? 1 : 0);
+            int step = pass == 0 ? 1 : 2;
+            for (int i = first; i < end; i += step) {
+                if (pass == 0) {
+                    table[i] = (byte) initialValue(i);
+                } else if (table[i] == 0 && resolves(i, pass)) {
+                    table[i] = (byte) (pass + 1);
+                    found++;
+                }
+            }
+            return found;
+        }
+
+        /**
+         * @return {@link Tablebase#ILLEGAL}, 1 if the weak side is mated, or 0
+         */
+        private int initialValue(int i) {
+            int strongKing = index.strongKing(i);
+            int weakKing = index.weakKing(i);
+            int firstSquare = index.piece(i, 0);
+            int secondSquare = twoPieces ? index.piece(i, 1) : -1;
+
+            long occupied = Bitboards.bit(strongKing) | Bitboards.bit(weakKing) | Bitboards.bit(firstSquare);
+            int pieces = twoPieces ? 4 : 3;
+            if (twoPieces) {
+                occupied |= Bitboards.bit(secondSquare);
+            }
+            if (Long.bitCount(occupied) != pieces
+                    || (Bitboards.kingAttacks(strongKing) & Bitboards.bit(weakKing)) != 0) {
+                return Tablebase.ILLEGAL;
+            }
+            if (material.hasPawns() && (firstSquare < 8 || firstSquare >= 56)) {
+                return Tablebase.ILLEGAL;
+            }
+
+            boolean inCheck = attacked(weakKing, occupied, strongKing, firstSquare, secondSquare, -1);
+            if (TablebaseIndex.strongToMove(i)) {
+                // The side not to move cannot be in check
+                return inCheck ? Tablebase.ILLEGAL : 0;
+            }
+            return inCheck && !hasWeakMove(weakKing, occupied, strongKing, firstSquare, secondSquare) ? 1 : 0;
+        }
+
+        /**
+         * @return true if the unresolved position at i is mated in exactly pass plies
+         */
+        private boolean resolves(int i, int pass) {
+            int strongKing = index.strongKing(i);
+            int weakKing = index.weakKing(i);
+            int firstSquare = index.piece(i, 0);
+            int secondSquare = twoPieces ? index.piece(i, 1) : -1;
+            long occupied = Bitboards.bit(strongKing) | Bitboards.bit(weakKing) | Bitboards.bit(firstSquare);
+            if (twoPieces) {
+                occupied |= Bitboards.bit(secondSquare);
+            }
+            // A child mated in pass - 1 plies is stored as pass
+            return TablebaseIndex.strongToMove(i)
+                    ? hasMoveTo(pass, strongKing, weakKing, firstSquare, secondSquare, occupied)
+                    : allMovesLose(pass, strongKing, weakKing, firstSquare, secondSquare, occupied);
+        }
+
+        /**
+         * @return true if a strong move reaches a position stored as target
+         */
+        private boolean hasMoveTo(int target, int strongKing, int weakKing, int firstSquare, int secondSquare,
+                                  long occupied) {
+            long own = occupied & ~Bitboards.bit(weakKing);
+            long kingTargets = Bitboards.kingAttacks(strongKing) & ~own & ~Bitboards.kingAttacks(weakKing);
+            while (kingTargets != 0) {
+                int to = Long.numberOfTrailingZeros(kingTargets);
+                kingTargets &= kingTargets - 1;
+                if (value(index.index(to, weakKing, firstSquare, secondSquare, false)) == target) {
+                    return true;
+                }
+            }
+
+            if (firstType == ChessPiece.PieceType.PAWN) {
+                return pawnMoveTo(target, strongKing, weakKing, firstSquare, occupied);
+            }
+            long targets = attacks(firstType, firstSquare, occupied) & ~occupied;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (value(index.index(strongKing, weakKing, to, secondSquare, false)) == target) {
+                    return true;
+                }
+            }
+            if (twoPieces) {
+                targets = attacks(secondType, secondSquare, occupied) & ~occupied;
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    if (value(index.index(strongKing, weakKing, firstSquare, to, false)) == target) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean pawnMoveTo(int target, int strongKing, int weakKing, int pawn, long occupied) {
+            int push = pawn + 8;
+            if ((occupied & Bitboards.bit(push)) != 0) {
+                return false;
+            }
+            if (push >= 56) {
+                // Bishop and knight promotions only draw
+                return valueIn(queenTable, queenIndex.index(strongKing, weakKing, push, 0, false)) == target
+                        || valueIn(rookTable, rookIndex.index(strongKing, weakKing, push, 0, false)) == target;
+            }
+            if (value(index.index(strongKing, weakKing, push, 0, false)) == target) {
+                return true;
+            }
+            int doublePush = pawn + 16;
+            return pawn < 16 && (occupied & Bitboards.bit(doublePush)) == 0
+                    && value(index.index(strongKing, weakKing, doublePush, 0, false)) == target;
+        }
+
+        /**
+         * @return true if the weak side has a move and every move reaches a
+         * position won in fewer than pass plies
+         */
+        private boolean allMovesLose(int pass, int strongKing, int weakKing, int firstSquare, int secondSquare,
+                                     long occupied) {
+            long targets = Bitboards.kingAttacks(weakKing) & ~Bitboards.kingAttacks(strongKing);
+            long withoutKing = occupied & ~Bitboards.bit(weakKing);
+            boolean anyMove = false;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (to == firstSquare || to == secondSquare) {
+                    // Taking an undefended piece leaves too little material to mate
+                    int captured = to == firstSquare ? 0 : 1;
+                    if (!attacked(to, withoutKing, strongKing, firstSquare, secondSquare, captured)) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (attacked(to, withoutKing, strongKing, firstSquare, secondSquare, -1)) {
+                    continue;
+                }
+                anyMove = true;
+                int child = value(index.index(strongKing, to, firstSquare, secondSquare, true));
+                if (child == 0 || child > pass) {
+                    return false;
+                }
+            }
+            return anyMove;
+        }
+
+        private boolean hasWeakMove(int weakKing, long occupied, int strongKing, int firstSquare, int secondSquare) {
+            long targets = Bitboards.kingAttacks(weakKing) & ~Bitboards.kingAttacks(strongKing);
+            long withoutKing = occupied & ~Bitboards.bit(weakKing);
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                int captured = to == firstSquare ? 0 : to == secondSquare ? 1 : -1;
+                if (!attacked(to, withoutKing, strongKing, firstSquare, secondSquare, captured)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @param captured the piece (0 or 1) standing on square and so not defending it, or -1
+         * @return true if the strong side attacks square, its king included
+         */
+        private boolean attacked(int square, long occupied, int strongKing, int firstSquare, int secondSquare,
+                                 int captured) {
+            if ((Bitboards.kingAttacks(strongKing) & Bitboards.bit(square)) != 0) {
+                return true;
+            }
+            if (captured != 0 && (attacks(firstType, firstSquare, occupied) & Bitboards.bit(square)) != 0) {
+                return true;
+            }
+            return twoPieces && captured != 1
+                    && (attacks(secondType, secondSquare, occupied) & Bitboards.bit(square)) != 0;
+        }
+
+        private static long attacks(ChessPiece.PieceType type, int square, long occupied) {
+            return switch (type) {
+                case QUEEN -> MagicBitboards.queenAttacks(square, occupied);
+                case ROOK -> MagicBitboards.rookAttacks(square, occupied);
+                case BISHOP -> MagicBitboards.bishopAttacks(square, occupied);
+                case KNIGHT -> Bitboards.knightAttacks(square);
+                case PAWN -> Bitboards.pawnAttacks(ChessGame.TeamColor.WHITE, square);
+                case KING -> Bitboards.kingAttacks(square);
+            };
+        }
+
+        private int value(int i) {
+            return table[i] & 0xFF;
+        }
+
+        private static int valueIn(byte[] table, int i) {
+            return table[i] & 0xFF;
+        }
+    }
+
+    /**
+     * Splits one pass over a range of indexes in half until it is small enough to run.
+     */
+    private static final class PassTask extends RecursiveTask<Long> {
+        private final Generation generation;
+        private final int pass;
+        private final int start;
+        private final int end;
+
+        PassTask(Generation generation, int pass, int start, int end) {
+            this.generation = generation;
+            this.pass = pass;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Long compute() {
+            if (end - start <= SPLIT_SIZE) {
+                return generation.pass(pass, start, end);
+            }
+            int middle = (start + end) >>> 1;
+            PassTask left = new PassTask(generation, pass, start, middle);
+            left.fork();
+            long right = new PassTask(generation, pass, middle, end).compute();
+            return left.join() + right;
+        }
+    }
+}
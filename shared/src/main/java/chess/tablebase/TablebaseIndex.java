@@ -0,0 +1,129 @@
+package chess.tablebase;
+
+/**
+ * Maps positions of one {@link Material} to table indexes and back.
+ * <p>
+ * Positions are seen from the strong side moving up the board, and a
+ * board symmetry moves the strong king into a reduced region first: the
+ * a1-d1-d4 triangle (10 squares) when there are no pawns, or the a-d files
+ * (32 squares) when there are. The index is then, from most to least
+ * significant: the strong king's slot in that region, the weak king, each
+ * piece in {@link Material} order (64 squares each), and the side to move.
+ * Positions that are impossible, such as two pieces on one square, have
+ * indexes too; the generator marks them illegal.
+ */
+final class TablebaseIndex {
+    private static final int[] TRIANGLE_SLOT = new int[64];
+    private static final int[] TRIANGLE_SQUARE = new int[10];
+    // TRANSFORMS[t][square]: bit 0 mirrors the files, bit 1 the ranks, bit 2 swaps files and ranks
+    private static final int[][] TRANSFORMS = new int[8][64];
+
+    static {
+        int slot = 0;
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7;
+            int rank = square >>> 3;
+            if (file <= 3 && rank <= file) {
+                TRIANGLE_SQUARE[slot] = square;
+                TRIANGLE_SLOT[square] = slot++;
+            } else {
+                TRIANGLE_SLOT[square] = -1;
+            }
+        }
+        for (int transform = 0; transform < 8; transform++) {
+            for (int square = 0; square < 64; square++) {
+                int file = square & 7;
+                int rank = square >>> 3;
+                if ((transform & 1) != 0) {
+                    file = 7 - file;
+                }
+                if ((transform & 2) != 0) {
+                    rank = 7 - rank;
+                }
+                TRANSFORMS[transform][square] = (transform & 4) != 0 ? file * 8 + rank : rank * 8 + file;
+            }
+        }
+    }
+
+    private final int pieceCount;
+    private final boolean pawns;
+    private final int size;
+
+    TablebaseIndex(Material material) {
+        this.pieceCount = material.pieceCount();
+        this.pawns = material.hasPawns();
+        int kingSlots = pawns ? 32 : 10;
+        this.size = (kingSlots * 64) << (6 * pieceCount + 1);
+    }
+
+    /**
+     * @return the number of indexes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param strongKing   the strong king's square
+     * @param weakKing     the weak king's square
+     * @param first        the square of the first piece
+     * @param second       the square of the second piece, ignored if there is only one
+     * @param strongToMove whether the strong side is to move
+     * @return the index of the position
+     */
+    int index(int strongKing, int weakKing, int first, int second, boolean strongToMove) {
+        int[] transform = TRANSFORMS[transform(strongKing)];
+        int king = transform[strongKing];
+        int index = pawns ? (king >>> 3) * 4 + (king & 7) : TRIANGLE_SLOT[king];
+        index = index * 64 + transform[weakKing];
+        index = index * 64 + transform[first];
+        if (pieceCount == 2) {
+            index = index * 64 + transform[second];
+        }
+        return index * 2 + (strongToMove ? 0 : 1);
+    }
+
+    static boolean strongToMove(int index) {
+        return (index & 1) == 0;
+    }
+
+    int strongKing(int index) {
+        int slot = index >>> (6 * pieceCount + 7);
+        return pawns ? (slot >>> 2) * 8 + (slot & 3) : TRIANGLE_SQUARE[slot];
+    }
+
+    int weakKing(int index) {
+        return (index >>> (6 * pieceCount + 1)) & 63;
+    }
+
+    /**
+     * @return the square of the piece at pieceIndex, in {@link Material} order
+     */
+    int piece(int index, int pieceIndex) {
+        return (index >>> (6 * (pieceCount - pieceIndex - 1) + 1)) & 63;
+    }
+
+    /**
+     * Picks the symmetry that brings the strong king into the reduced region.
+     */
+    private int transform(int strongKing) {
+        int file = strongKing & 7;
+        int rank = strongKing >>> 3;
+        int transform = 0;
+        if (file > 3) {
+            transform |= 1;
+            file = 7 - file;
+        }
+        if (pawns) {
+            return transform;
+        }
+        if (rank > 3) {
+            transform |= 2;
+            rank = 7 - rank;
+        }
+        if (rank > file) {
+            transform |= 4;
+        }
+        return transform;
+    }
+}
@@ -0,0 +1,32 @@
+package chess.tablebase;
+
+/**
+ * The exact value of a tablebase position for the side to move.
+ *
+ * @param outcome     the result with best play from both sides
+ * @param pliesToMate half-moves until mate with best play, the winner
+ *                    mating as fast as it can and the loser holding out
+ *                    as long as it can; 0 for a draw or if already mated
+ */
+public record TablebaseResult(Outcome outcome, int pliesToMate) {
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    static final TablebaseResult DRAW = new TablebaseResult(Outcome.DRAW, 0);
+
+    /**
+     * @return the result stored for a table value: 0 for a draw, otherwise plies to mate + 1
+     */
+    static TablebaseResult fromValue(int value) {
+        if (value == 0) {
+            return DRAW;
+        }
+        int plies = value - 1;
+        // An odd distance ends with the side to move giving mate
+        return new TablebaseResult((plies & 1) != 0 ? Outcome.WIN : Outcome.LOSS, plies);
+    }
+}
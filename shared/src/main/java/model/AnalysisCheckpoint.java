@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * Represents how far a bulk analysis job has got, so it can resume after a restart.
+ *
+ * @param jobName       The unique name of the job.
+ * @param depth         The search depth the job scores positions at.
+ * @param lastGameID    Every game up to and including this ID has been analyzed.
+ * @param gamesAnalyzed The number of games the job has analyzed so far.
+ */
+public record AnalysisCheckpoint(String jobName, int depth, int lastGameID, int gamesAnalyzed) {}
@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * Represents the engine's verdict on one move of a stored game.
+ *
+ * @param gameID      The game the move was played in.
+ * @param ply         The move's place in the game, counting from 0 for white's first move.
+ * @param move        The move played, in coordinate notation (e.g. "e2e4", "a7a8q").
+ * @param bestMove    The move the engine prefers, in coordinate notation.
+ * @param bestScore   The position's value before the move, in centipawns for the side that moved.
+ * @param playedScore The position's value after the move, in centipawns for the side that moved.
+ * @param accuracy    How close the move came to the engine's choice, from 0 to 100.
+ * @param depth       The search depth the positions were scored at.
+ */
+public record MoveAnalysis(
+        int gameID,
+        int ply,
+        String move,
+        String bestMove,
+        int bestScore,
+        int playedScore,
+        double accuracy,
+        int depth
+) {}
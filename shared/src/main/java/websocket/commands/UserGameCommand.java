@@ -12,23 +12,41 @@ public class UserGameCommand {
 
     private final ChessMove move;
 
+    // ANALYZE limits; either may be null
+    private final Integer depth;
+    private final Integer timeMillis;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
         this(commandType, authToken, gameID, null);
     }
 
     // overloaded version
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID, ChessMove move) {
+        this(commandType, authToken, gameID, move, null, null);
+    }
+
+    // overloaded version for ANALYZE
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID, Integer depth,
+                           Integer timeMillis) {
+        this(commandType, authToken, gameID, null, depth, timeMillis);
+    }
+
+    private UserGameCommand(CommandType commandType, String authToken, Integer gameID, ChessMove move,
+                            Integer depth, Integer timeMillis) {
         this.commandType = commandType;
         this.authToken = authToken;
         this.gameID = gameID;
         this.move = move;
+        this.depth = depth;
+        this.timeMillis = timeMillis;
     }
 
     public enum CommandType {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        ANALYZE
     }
 
     public CommandType getCommandType() {
@@ -47,6 +65,14 @@ public class UserGameCommand {
         return move;
     }
 
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public Integer getTimeMillis() {
+        return timeMillis;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -59,11 +85,13 @@ public class UserGameCommand {
         return commandType == that.commandType &&
                 Objects.equals(authToken, that.authToken) &&
                 Objects.equals(gameID, that.gameID) &&
-                Objects.equals(move, that.move);
+                Objects.equals(move, that.move) &&
+                Objects.equals(depth, that.depth) &&
+                Objects.equals(timeMillis, that.timeMillis);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(commandType, authToken, gameID, move);
+        return Objects.hash(commandType, authToken, gameID, move, depth, timeMillis);
     }
 }
@@ -0,0 +1,67 @@
+package websocket.messages;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * One iteration of an ANALYZE search, sent only to the user who asked for it.
+ * Scores are in centipawns from the point of view of the side to move.
+ */
+public class AnalysisMessage extends ServerMessage {
+    public int depth;
+    public int score;
+    // Moves until mate, negative when being mated; null if no mate was found
+    public Integer mateIn;
+    public long nodes;
+    public long timeMillis;
+    public ChessMove bestMove;
+    public List<ChessMove> principalVariation;
+    // True on the last message of an analysis
+    public boolean finished;
+
+    public AnalysisMessage(int depth, int score, Integer mateIn, long nodes, long timeMillis, ChessMove bestMove,
+                           List<ChessMove> principalVariation, boolean finished) {
+        super(ServerMessageType.ANALYSIS);
+        this.depth = depth;
+        this.score = score;
+        this.mateIn = mateIn;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.bestMove = bestMove;
+        this.principalVariation = principalVariation;
+        this.finished = finished;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public Integer getMateIn() {
+        return mateIn;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public ChessMove getBestMove() {
+        return bestMove;
+    }
+
+    public List<ChessMove> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FlyweightTests {
+
+    @Test
+    @DisplayName("Factories Return Shared Instances")
+    public void factoriesReturnSharedInstances() {
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertSame(ChessPosition.of(4, 5), ChessPosition.of(4, 5));
+
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertSame(move, ChessMove.of(new ChessPosition(7, 1), new ChessPosition(8, 1),
+                ChessPiece.PieceType.KNIGHT));
+        Assertions.assertNotSame(move, ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1),
+                ChessPiece.PieceType.QUEEN));
+    }
+
+    @Test
+    @DisplayName("Shared Instances Equal New Instances")
+    public void sharedInstancesEqualNewInstances() {
+        ChessPiece piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        Assertions.assertEquals(piece, ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        Assertions.assertEquals(piece.hashCode(),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK).hashCode());
+
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove shared = ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        Assertions.assertEquals(move, shared);
+        Assertions.assertEquals(move.hashCode(), shared.hashCode());
+    }
+
+    @Test
+    @DisplayName("Off Board Positions Are Not Pooled")
+    public void offBoardPositionsAreNotPooled() {
+        ChessPosition internal = ChessPosition.of(0, 7);
+        Assertions.assertEquals(0, internal.getRow());
+        Assertions.assertEquals(7, internal.getColumn());
+        Assertions.assertNotSame(internal, ChessPosition.of(0, 7));
+
+        ChessMove move = ChessMove.of(internal, ChessPosition.of(1, 1), null);
+        Assertions.assertEquals(internal, move.getStartPosition());
+    }
+
+    @Test
+    @DisplayName("Board Stores Shared Pieces")
+    public void boardStoresSharedPieces() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(3, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                board.getPiece(ChessPosition.of(3, 3)));
+    }
+
+    @Test
+    @DisplayName("Gson Round Trip")
+    public void gsonRoundTrip() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.getBoard(), copy.getBoard(), "Board changed in a Gson round trip");
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                copy.getBoard().getPiece(ChessPosition.of(4, 5)), "Deserialized board kept a duplicate piece");
+
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(8, 4), ChessPiece.PieceType.QUEEN);
+        Assertions.assertEquals(move, gson.fromJson(gson.toJson(move), ChessMove.class));
+    }
+}
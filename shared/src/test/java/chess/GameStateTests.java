@@ -0,0 +1,142 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GameStateTests {
+
+    @Test
+    @DisplayName("Pack Round Trip")
+    public void packRoundTrip() {
+        GameState state = new GameState(GameState.WHITE_KINGSIDE | GameState.BLACK_QUEENSIDE, 5, 37, 120);
+        Assertions.assertEquals(state, GameState.unpack(state.pack()));
+        Assertions.assertEquals(GameState.INITIAL, GameState.unpack(GameState.INITIAL.pack()));
+    }
+
+    @Test
+    @DisplayName("New Game State")
+    public void newGameState() {
+        Assertions.assertEquals(GameState.INITIAL, new ChessGame().getState());
+    }
+
+    @Test
+    @DisplayName("Castling Moves Rook and Clears Rights")
+    public void castling() throws InvalidMoveException {
+        ChessGame game = Fen.toGame("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        game.makeMove(ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null));
+
+        ChessBoard board = game.getBoard();
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                board.getPiece(ChessPosition.of(1, 6)), "Rook did not castle");
+        Assertions.assertNull(board.getPiece(ChessPosition.of(1, 8)));
+        Assertions.assertEquals(GameState.BLACK_KINGSIDE | GameState.BLACK_QUEENSIDE,
+                game.getState().castlingRights());
+        Assertions.assertEquals(1, game.getState().halfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Castling Through Check Not Allowed")
+    public void castlingThroughCheck() {
+        // The black rook on f8 covers f1
+        ChessGame game = Fen.toGame("5r1k/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        Assertions.assertFalse(game.validMoves(ChessPosition.of(1, 5))
+                .contains(ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null)));
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(1, 5))
+                .contains(ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(1, 3), null)));
+    }
+
+    @Test
+    @DisplayName("En Passant Capture")
+    public void enPassant() throws InvalidMoveException {
+        ChessGame game = Fen.toGame("4k3/3p4/8/4P3/8/8/8/4K3 b - - 0 1");
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        Assertions.assertEquals(3, game.getState().enPassantFile());
+
+        game.makeMove(ChessMove.of(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null));
+        Assertions.assertNull(game.getBoard().getPiece(ChessPosition.of(5, 4)), "Captured pawn was not removed");
+        Assertions.assertEquals(GameState.NO_EN_PASSANT, game.getState().enPassantFile());
+        Assertions.assertEquals(0, game.getState().halfmoveClock());
+        Assertions.assertEquals(2, game.getState().fullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("Unmake Restores State")
+    public void unmakeRestoresState() {
+        ChessGame game = Fen.toGame("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 7 12");
+        ChessBoard board = game.getBoard();
+        long key = game.zobristKey();
+        GameState state = game.getState();
+
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, ChessGame.TeamColor.WHITE, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            long undo = board.makeMove(moves.get(i));
+            board.unmakeMove(moves.get(i), undo);
+            Assertions.assertEquals(key, game.zobristKey(), "Key changed after " + Move.toString(moves.get(i)));
+            Assertions.assertEquals(state, game.getState(), "State changed after " + Move.toString(moves.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Key Ignores Uncapturable En Passant")
+    public void keyIgnoresUncapturableEnPassant() {
+        // No black pawn can take on e3, so these are the same position
+        Assertions.assertEquals(Fen.toGame("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1").zobristKey(),
+                Fen.toGame("4k3/8/8/8/4P3/8/8/4K3 b - - 0 1").zobristKey());
+        Assertions.assertNotEquals(Fen.toGame("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1").zobristKey(),
+                Fen.toGame("4k3/8/8/8/3pP3/8/8/4K3 b - - 0 1").zobristKey());
+    }
+
+    @Test
+    @DisplayName("Gson Round Trip Keeps State")
+    public void gsonRoundTrip() {
+        Gson gson = new Gson();
+        ChessGame game = Fen.toGame("r3k2r/8/8/3pP3/8/8/8/R3K3 w Qk d6 4 20");
+
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.getState(), copy.getState());
+        Assertions.assertEquals(game.zobristKey(), copy.zobristKey());
+    }
+
+    /**
+     * Serializes a game the way it was saved before the rule state and move history were kept.
+     */
+    private static String legacyJson(Gson gson, ChessGame game) {
+        JsonObject json = gson.toJsonTree(game).getAsJsonObject();
+        for (String field : new String[] {"fullmoveNumber", "history", "moves"}) {
+            json.remove(field);
+        }
+        JsonObject board = json.getAsJsonObject("board");
+        for (String field : new String[] {"castlingRights", "enPassantSquare", "halfmoveClock"}) {
+            board.remove(field);
+        }
+        return json.toString();
+    }
+
+    @Test
+    @DisplayName("Legacy Saves Only Castle From The Start")
+    public void legacySaveCastling() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame fresh = gson.fromJson(legacyJson(gson, new ChessGame()), ChessGame.class);
+        Assertions.assertEquals(GameState.ALL_CASTLING, fresh.getState().castlingRights());
+
+        // The kings went out and came back, which the saved board alone cannot show
+        String fen = "r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R w KQkq - 0 1";
+        ChessGame played = Fen.toGame(fen);
+        for (String move : new String[] {"e1d1", "e8d8", "d1e1", "d8e8"}) {
+            played.makeMove(ChessMove.of(ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                    ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null));
+        }
+        ChessGame loaded = gson.fromJson(legacyJson(gson, played), ChessGame.class);
+        Assertions.assertEquals(0, loaded.getState().castlingRights());
+        Assertions.assertTrue(loaded.validMoves(ChessPosition.of(1, 5)).stream()
+                .noneMatch(move -> Math.abs(move.getEndPosition().getColumn() - 5) == 2));
+
+        // Rights that were saved are kept, away from the start position too
+        ChessGame saved = gson.fromJson(gson.toJson(Fen.toGame(fen)), ChessGame.class);
+        Assertions.assertEquals(GameState.ALL_CASTLING, saved.getState().castlingRights());
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GameStatusTests {
+
+    @Test
+    @DisplayName("Start Position")
+    public void startPosition() {
+        GameStatus status = new ChessGame().status();
+
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, status.team());
+        Assertions.assertFalse(status.inCheck());
+        Assertions.assertEquals(20, status.legalMoves());
+        Assertions.assertFalse(status.isGameOver());
+    }
+
+    @Test
+    @DisplayName("Checkmate")
+    public void checkmate() throws InvalidMoveException {
+        // Fool's mate
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+
+        GameStatus status = game.status();
+        Assertions.assertTrue(status.isCheckmate());
+        Assertions.assertFalse(status.isStalemate());
+        Assertions.assertEquals(status.isCheckmate(), game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Stalemate")
+    public void stalemate() {
+        GameStatus status = Fen.toGame("k7/8/1Q6/8/8/8/8/7K b - - 0 1").status();
+
+        Assertions.assertTrue(status.isStalemate());
+        Assertions.assertFalse(status.isCheckmate());
+        Assertions.assertEquals(0, status.legalMoves());
+    }
+
+    @Test
+    @DisplayName("Status Is Reused Until The Position Changes")
+    public void statusIsReused() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        GameStatus first = game.status();
+        Assertions.assertSame(first, game.status(), "Unchanged position recomputed its status");
+
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        GameStatus afterMove = game.status();
+        Assertions.assertNotSame(first, afterMove);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, afterMove.team());
+
+        // Editing the board directly must not serve the stale result
+        game.getBoard().addPiece(ChessPosition.of(6, 4), ChessPiece.of(ChessGame.TeamColor.WHITE,
+                ChessPiece.PieceType.KNIGHT));
+        Assertions.assertTrue(game.status().inCheck(), "Status was not recomputed after a board edit");
+    }
+
+    @Test
+    @DisplayName("Either Team Can Be Queried")
+    public void eitherTeam() {
+        ChessGame game = new ChessGame();
+        GameStatus black = game.status(ChessGame.TeamColor.BLACK);
+        GameStatus white = game.status(ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, black.team());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, white.team());
+        Assertions.assertEquals(20, black.legalMoves());
+    }
+}
@@ -0,0 +1,80 @@
+package chess;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ParallelPerftTests {
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    public static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest(name = "{0} depth {1}")
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1; 4; 197281",
+            "8/k1P5/8/1K6/8/8/8/8 w - - 0 1; 7; 567584",
+            "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1; 6; 3821001",
+            "8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1; 5; 1004658",
+            "K1k5/8/P7/8/8/8/8/8 w - - 0 1; 1; 2",
+            "K1k5/8/P7/8/8/8/8/8 w - - 0 1; 0; 1"
+    })
+    @DisplayName("Reference Positions")
+    public void referencePositions(String fen, int depth, long expected) {
+        Assertions.assertEquals(expected, ParallelPerft.perft(Fen.toGame(fen), depth, pool),
+                "Wrong parallel node count for " + fen + " at depth " + depth);
+    }
+
+    @Test
+    @DisplayName("Divide Matches Serial")
+    public void divideMatchesSerial() {
+        ChessGame game = Fen.toGame("8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1");
+        Assertions.assertEquals(Perft.divide(game, 4, Perft.Mode.LEGAL_GENERATOR),
+                ParallelPerft.divide(game, 4, pool), "Parallel divide differs from serial divide");
+    }
+
+    @Test
+    @DisplayName("Enumerate Leaf Positions")
+    public void enumerateLeafPositions() {
+        ChessGame game = new ChessGame();
+        AtomicLong visited = new AtomicLong();
+        Set<Long> distinct = ConcurrentHashMap.newKeySet();
+
+        long nodes = ParallelPerft.forEachPosition(game, 3, pool, board -> {
+            visited.incrementAndGet();
+            distinct.add(board.zobristKey());
+        });
+
+        Assertions.assertEquals(8902, nodes, "Wrong number of positions enumerated");
+        Assertions.assertEquals(nodes, visited.get(), "Visitor was not called once per leaf");
+        // 8902 move sequences transpose into 5362 distinct positions after 3 plies
+        Assertions.assertEquals(5362, distinct.size(), "Wrong number of distinct positions");
+    }
+
+    @Test
+    @DisplayName("Game Unchanged")
+    public void gameUnchanged() {
+        ChessGame game = new ChessGame();
+        ChessBoard before = game.getBoard().copy();
+
+        ParallelPerft.perft(game, 4, pool);
+
+        Assertions.assertEquals(before, game.getBoard(), "Parallel perft modified the game's board");
+    }
+}
@@ -0,0 +1,163 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+public class PerftTests {
+
+    @ParameterizedTest(name = "{0} depth {1}")
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1; 1; 20",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1; 2; 400",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1; 3; 8902",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1; 4; 197281",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1; 1; 14",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1; 2; 191",
+            "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1; 6; 3821001",
+            "8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1; 5; 1004658",
+            "4k3/1P6/8/8/8/8/K7/8 w - - 0 1; 6; 217342",
+            "8/P1k5/K7/8/8/8/8/8 w - - 0 1; 6; 92683",
+            "K1k5/8/P7/8/8/8/8/8 w - - 0 1; 6; 2217",
+            "8/k1P5/8/1K6/8/8/8/8 w - - 0 1; 7; 567584",
+            "8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1; 4; 23527"
+    })
+    @DisplayName("Reference Positions")
+    public void referencePositions(String fen, int depth, long expected) {
+        ChessGame game = Fen.toGame(fen);
+        Assertions.assertEquals(expected, Perft.perft(game, depth, Perft.Mode.LEGAL_GENERATOR),
+                "Wrong node count for " + fen + " at depth " + depth);
+    }
+
+    @ParameterizedTest(name = "{0} depth {1}")
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1; 5; 4865609",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 1; 48",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 2; 2039",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 3; 97862",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 4; 4085603",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1; 5; 674624",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1; 4; 422333",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8; 3; 62379",
+            "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1; 6; 1134888",
+            "8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1; 6; 1015133",
+            "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1; 6; 1440467",
+            "5k2/8/8/8/8/8/8/4K2R w K - 0 1; 6; 661072",
+            "3k4/8/8/8/8/8/8/R3K3 w Q - 0 1; 6; 803711",
+            "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1; 4; 1274206",
+            "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1; 4; 1720476"
+    })
+    @DisplayName("Castling and En Passant Positions")
+    public void castlingAndEnPassantPositions(String fen, int depth, long expected) {
+        ChessGame game = Fen.toGame(fen);
+        Assertions.assertEquals(expected, Perft.perft(game, depth, Perft.Mode.LEGAL_GENERATOR),
+                "Wrong node count for " + fen + " at depth " + depth);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1; 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1; 3",
+            "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1; 3",
+            "8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1; 3",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 2",
+            "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1; 3"
+    })
+    @DisplayName("Valid Moves Path Matches Generator")
+    public void validMovesMatchesGenerator(String fen, int depth) {
+        ChessGame game = Fen.toGame(fen);
+        Assertions.assertEquals(Perft.perft(game, depth, Perft.Mode.LEGAL_GENERATOR),
+                Perft.perft(game, depth, Perft.Mode.VALID_MOVES),
+                "ChessGame.validMoves and LegalMoveGenerator disagree for " + fen);
+    }
+
+    @Test
+    @DisplayName("Divide Sums to Perft")
+    public void divideSumsToPerft() {
+        ChessGame game = Fen.toGame("8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1");
+        Map<String, Long> counts = Perft.divide(game, 3, Perft.Mode.LEGAL_GENERATOR);
+
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(Perft.perft(game, 3, Perft.Mode.LEGAL_GENERATOR), total,
+                "Divide counts do not add up to the perft total");
+        Assertions.assertEquals(counts, Perft.divide(game, 3, Perft.Mode.VALID_MOVES),
+                "Divide counts differ between generation paths");
+    }
+
+    @Test
+    @DisplayName("Perft Leaves Game Unchanged")
+    public void perftLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        ChessBoard before = game.getBoard().copy();
+
+        Perft.perft(game, 3, Perft.Mode.LEGAL_GENERATOR);
+        Perft.perft(game, 2, Perft.Mode.VALID_MOVES);
+
+        Assertions.assertEquals(before, game.getBoard(), "Perft modified the game's board");
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn(), "Perft changed the turn");
+    }
+
+    @Test
+    @DisplayName("FEN Round Trip")
+    public void fenRoundTrip() {
+        String fen = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1";
+        Assertions.assertEquals(fen, Fen.fromGame(Fen.toGame(fen)));
+        String fullRules = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+        Assertions.assertEquals(fullRules, Fen.fromGame(Fen.toGame(fullRules)));
+        Assertions.assertEquals(new ChessGame().getBoard(), Fen.toGame(Fen.START_POSITION).getBoard(),
+                "Start position FEN does not match the default board");
+    }
+
+    /**
+     * Checks at every node to depth that captures and quiet moves are generated
+     * separately without losing or repeating a move.
+     */
+    private static void checkMoveTypes(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        MoveList all = new MoveList();
+        MoveList captures = new MoveList();
+        MoveList quiets = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, all);
+        LegalMoveGenerator.generateMoves(board, side, MoveType.CAPTURES, captures);
+        LegalMoveGenerator.generateMoves(board, side, MoveType.QUIETS, quiets);
+
+        Assertions.assertEquals(all.size(), captures.size() + quiets.size(), "Move count differs by type");
+        for (int i = 0; i < captures.size(); i++) {
+            int move = captures.get(i);
+            Assertions.assertTrue(Move.isCapture(move) || Move.isPromotion(move), Move.toString(move));
+            Assertions.assertEquals(move, all.find(move));
+        }
+        for (int i = 0; i < quiets.size(); i++) {
+            int move = quiets.get(i);
+            Assertions.assertFalse(Move.isCapture(move) || Move.isPromotion(move), Move.toString(move));
+            Assertions.assertEquals(move, all.find(move));
+        }
+
+        if (depth > 1) {
+            ChessGame.TeamColor next = Perft.opposite(side);
+            for (int i = 0; i < all.size(); i++) {
+                int move = all.get(i);
+                long undo = board.makeMove(move);
+                checkMoveTypes(board, next, depth - 1);
+                board.unmakeMove(move, undo);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Captures And Quiet Moves Split Every Move")
+    public void moveTypesPartitionMoves() {
+        String[] positions = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        };
+        for (String fen : positions) {
+            ChessGame game = Fen.toGame(fen);
+            checkMoveTypes(game.getBoard().copy(), game.getTeamTurn(), 3);
+        }
+    }
+}
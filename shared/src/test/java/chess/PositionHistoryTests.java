@@ -0,0 +1,115 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PositionHistoryTests {
+
+    private static void move(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null));
+    }
+
+    /**
+     * Both sides' knights go out and come back, returning to the start position.
+     */
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        move(game, 1, 7, 3, 6);
+        move(game, 8, 7, 6, 6);
+        move(game, 3, 6, 1, 7);
+        move(game, 6, 6, 8, 7);
+    }
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(1, game.getRepetitionCount());
+
+        shuffleKnights(game);
+        Assertions.assertEquals(2, game.getRepetitionCount());
+        Assertions.assertFalse(game.status().isDraw());
+
+        shuffleKnights(game);
+        GameStatus status = game.status();
+        Assertions.assertEquals(3, status.repetitions());
+        Assertions.assertTrue(status.isThreefoldRepetition());
+        Assertions.assertTrue(status.isGameOver());
+    }
+
+    @Test
+    @DisplayName("Pawn Move Clears History")
+    public void pawnMoveClearsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        move(game, 2, 5, 4, 5);
+        move(game, 7, 5, 5, 5);
+        shuffleKnights(game);
+
+        // The start position can never recur after the pawn moves
+        Assertions.assertEquals(2, game.getRepetitionCount());
+    }
+
+    @Test
+    @DisplayName("Side To Move Matters")
+    public void sideToMoveMatters() throws InvalidMoveException {
+        // White loses a tempo with the rook, so the placements repeat with the other side to move
+        ChessGame game = Fen.toGame("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        move(game, 1, 1, 2, 1);
+        move(game, 8, 5, 8, 4);
+        move(game, 2, 1, 3, 1);
+        move(game, 8, 4, 8, 5);
+        move(game, 3, 1, 1, 1);
+        Assertions.assertEquals(1, game.getRepetitionCount());
+    }
+
+    @Test
+    @DisplayName("Fifty Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = Fen.toGame("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        Assertions.assertFalse(game.status().isFiftyMoveRule());
+
+        move(game, 1, 1, 2, 1);
+        GameStatus status = game.status();
+        Assertions.assertEquals(100, status.halfmoveClock());
+        Assertions.assertTrue(status.isFiftyMoveRule());
+        Assertions.assertTrue(status.isDraw());
+    }
+
+    @Test
+    @DisplayName("Checkmate Beats Fifty Move Rule")
+    public void checkmateBeatsFiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = Fen.toGame("k7/8/1K6/8/8/8/8/7R w - - 99 80");
+        move(game, 1, 8, 8, 8);
+
+        GameStatus status = game.status();
+        Assertions.assertTrue(status.isCheckmate());
+        Assertions.assertFalse(status.isFiftyMoveRule());
+    }
+
+    @Test
+    @DisplayName("History Survives Gson")
+    public void historySurvivesGson() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        shuffleKnights(copy);
+        Assertions.assertTrue(copy.status().isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Setting Up A Position Clears History")
+    public void setBoardClearsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        game.setBoard(board);
+        Assertions.assertEquals(1, game.getRepetitionCount());
+    }
+}
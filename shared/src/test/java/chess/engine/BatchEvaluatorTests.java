@@ -0,0 +1,112 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.LegalMoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+public class BatchEvaluatorTests {
+
+    /**
+     * Positions from seeded random games, with every phase of the game and some promotions.
+     */
+    private static List<ChessBoard> randomBoards(int count) {
+        List<ChessBoard> boards = new ArrayList<>();
+        Random random = new Random(7);
+        MoveList moves = new MoveList();
+        while (boards.size() < count) {
+            ChessBoard board = new ChessBoard();
+            board.resetBoard();
+            ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+            for (int ply = 0; ply < 200 && boards.size() < count; ply++) {
+                moves.clear();
+                LegalMoveGenerator.generateMoves(board, side, moves);
+                if (moves.size() == 0) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                boards.add(board.copy());
+            }
+        }
+        return boards;
+    }
+
+    private static int evaluate(ChessBoard board) {
+        Evaluator evaluator = new Evaluator();
+        evaluator.reset(board);
+        return evaluator.evaluate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Test
+    @DisplayName("Batches Match The Evaluator")
+    public void matchesEvaluator() {
+        List<ChessBoard> boards = randomBoards(2000);
+        boards.add(new ChessGame().getBoard());
+        boards.add(Fen.toGame("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1").getBoard());
+        // Extra queens push the phase past the start position's
+        boards.add(Fen.toGame("QQQQkQQQ/8/8/8/8/8/8/QQQQKQQQ w - - 0 1").getBoard());
+        long[] packed = BatchEvaluator.pack(boards);
+
+        BatchEvaluator vector = new BatchEvaluator();
+        BatchEvaluator scalar = new BatchEvaluator(EvaluationWeights.defaults(), false);
+        // The default build tests the scalar fallback twice; the vector profile adds the module and the kernel
+        Assertions.assertEquals(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                vector.isVectorized());
+        Assertions.assertFalse(scalar.isVectorized());
+
+        int[] vectorScores = vector.evaluate(packed);
+        int[] scalarScores = scalar.evaluate(packed);
+        for (int i = 0; i < boards.size(); i++) {
+            int expected = evaluate(boards.get(i));
+            Assertions.assertEquals(expected, vectorScores[i], "Vector score of board " + i);
+            Assertions.assertEquals(expected, scalarScores[i], "Scalar score of board " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Scores Only The Requested Count")
+    public void partialBatch() {
+        List<ChessBoard> boards = randomBoards(3);
+        int[] scores = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        new BatchEvaluator().evaluate(BatchEvaluator.pack(boards), 2, scores);
+        Assertions.assertEquals(evaluate(boards.get(1)), scores[1]);
+        Assertions.assertEquals(Integer.MIN_VALUE, scores[2]);
+
+        BatchEvaluator evaluator = new BatchEvaluator();
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> evaluator.evaluate(new long[BatchEvaluator.LONGS_PER_BOARD], 2, new int[2]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> evaluator.evaluate(new long[2 * BatchEvaluator.LONGS_PER_BOARD], 2, new int[1]));
+    }
+
+    @Test
+    @DisplayName("Rejects Weights Too Large To Pack")
+    public void largeWeights() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(EvaluationWeights.DEFAULT_RESOURCE)) {
+            properties.load(in);
+        }
+        properties.setProperty("value.eg.QUEEN", "5000");
+        StringBuilder text = new StringBuilder();
+        for (String key : properties.stringPropertyNames()) {
+            text.append(key).append('=').append(properties.getProperty(key)).append('\n');
+        }
+        EvaluationWeights weights = EvaluationWeights.load(
+                new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.ISO_8859_1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BatchEvaluator(weights));
+    }
+}
@@ -0,0 +1,146 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.LegalMoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+public class EvaluatorTests {
+
+    /**
+     * Walks every line to depth, checking after each make and unmake that the
+     * running sums match an evaluator reset from the board.
+     */
+    private static void checkTree(ChessBoard board, ChessGame.TeamColor side, Evaluator evaluator, int depth) {
+        Evaluator fresh = new Evaluator();
+        fresh.reset(board);
+        Assertions.assertEquals(fresh.evaluate(ChessGame.TeamColor.WHITE), evaluator.evaluate(ChessGame.TeamColor.WHITE),
+                "Incremental evaluation drifted in " + Fen.fromGame(gameOf(board, side)));
+        if (depth == 0) {
+            return;
+        }
+
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, moves);
+        ChessGame.TeamColor next = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            evaluator.makeMove(board, move);
+            long undo = board.makeMove(move);
+            checkTree(board, next, evaluator, depth - 1);
+            board.unmakeMove(move, undo);
+            evaluator.unmakeMove();
+        }
+    }
+
+    private static ChessGame gameOf(ChessBoard board, ChessGame.TeamColor side) {
+        ChessGame game = new ChessGame();
+        game.setBoard(board.copy());
+        game.setTeamTurn(side);
+        return game;
+    }
+
+    @Test
+    @DisplayName("Incremental Sums Match A Full Recount")
+    public void incrementalMatchesRecount() {
+        String[] positions = {
+                // Castling both ways and en passant
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                // Promotions with and without capture
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        };
+        for (String fen : positions) {
+            ChessGame game = Fen.toGame(fen);
+            ChessBoard board = game.getBoard().copy();
+            Evaluator evaluator = new Evaluator();
+            evaluator.reset(board);
+            checkTree(board, game.getTeamTurn(), evaluator, 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Symmetric Positions Score Zero")
+    public void symmetry() {
+        Evaluator evaluator = new Evaluator();
+        evaluator.reset(new ChessGame().getBoard());
+        Assertions.assertEquals(0, evaluator.evaluate(ChessGame.TeamColor.WHITE));
+
+        // The same position with colors swapped scores the same for the other side
+        Evaluator white = new Evaluator();
+        white.reset(Fen.toGame("4k3/8/8/8/3N4/8/2P5/4K3 w - - 0 1").getBoard());
+        Evaluator black = new Evaluator();
+        black.reset(Fen.toGame("4k3/2p5/8/3n4/8/8/8/4K3 b - - 0 1").getBoard());
+        Assertions.assertTrue(white.evaluate(ChessGame.TeamColor.WHITE) > 0);
+        Assertions.assertEquals(white.evaluate(ChessGame.TeamColor.WHITE), black.evaluate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("King Placement Tapers From Middlegame To Endgame")
+    public void tapering() {
+        // With all pieces on, a centralised king is a liability
+        Evaluator middlegame = new Evaluator();
+        middlegame.reset(Fen.toGame("rnbqkbnr/pppppppp/8/8/3K4/8/PPPPPPPP/RNBQ1BNR w kq - 0 1").getBoard());
+        Assertions.assertTrue(middlegame.evaluate(ChessGame.TeamColor.WHITE) < 0);
+
+        // With only pawns left it is an asset
+        Evaluator endgame = new Evaluator();
+        endgame.reset(Fen.toGame("4k3/pppppppp/8/8/3K4/8/PPPPPPPP/8 w - - 0 1").getBoard());
+        Assertions.assertTrue(endgame.evaluate(ChessGame.TeamColor.WHITE) > 0);
+    }
+
+    @Test
+    @DisplayName("Weights Load From A Properties File")
+    public void customWeights() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(EvaluationWeights.DEFAULT_RESOURCE)) {
+            properties.load(in);
+        }
+        properties.setProperty("value.mg.KNIGHT", "1000");
+        properties.setProperty("value.eg.KNIGHT", "1000");
+
+        ChessBoard board = Fen.toGame("4k3/8/8/8/3N4/8/8/4K3 w - - 0 1").getBoard();
+        Evaluator standard = new Evaluator();
+        standard.reset(board);
+        Evaluator tuned = new Evaluator(load(properties));
+        tuned.reset(board);
+        int difference = tuned.evaluate(ChessGame.TeamColor.WHITE) - standard.evaluate(ChessGame.TeamColor.WHITE);
+        // The tapered gain lies between the middlegame gain (680) and the endgame gain (700)
+        Assertions.assertTrue(difference >= 680 && difference <= 700, "Knight gained " + difference);
+    }
+
+    @Test
+    @DisplayName("Malformed Weights Are Rejected")
+    public void malformedWeights() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> EvaluationWeights.load(new ByteArrayInputStream("value.mg.PAWN=100".getBytes())));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            Properties properties = new Properties();
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream(EvaluationWeights.DEFAULT_RESOURCE)) {
+                properties.load(in);
+            }
+            properties.setProperty("pst.mg.ROOK", "1, 2, 3");
+            load(properties);
+        });
+    }
+
+    private static EvaluationWeights load(Properties properties) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (String key : properties.stringPropertyNames()) {
+            text.append(key).append('=').append(properties.getProperty(key)).append('\n');
+        }
+        return EvaluationWeights.load(new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.ISO_8859_1)));
+    }
+}
@@ -0,0 +1,137 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.LegalMoveGenerator;
+import chess.Move;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class MovePickerTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static List<Integer> pickAll(MovePicker picker) {
+        List<Integer> picked = new ArrayList<>();
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            picked.add(move);
+        }
+        return picked;
+    }
+
+    private static Set<Integer> legalMoves(ChessBoard board, ChessGame.TeamColor side) {
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, moves);
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < moves.size(); i++) {
+            set.add(moves.get(i));
+        }
+        return set;
+    }
+
+    private static int move(ChessBoard board, ChessGame.TeamColor side, String text) {
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.toString(moves.get(i)).equals(text)) {
+                return moves.get(i);
+            }
+        }
+        throw new IllegalArgumentException("No legal move " + text);
+    }
+
+    @Test
+    @DisplayName("Every Legal Move Exactly Once")
+    public void everyMoveOnce() {
+        ChessBoard board = Fen.toGame(KIWIPETE).getBoard();
+        ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+        HistoryTables tables = new HistoryTables();
+        // Killers that are legal quiet moves here, and one that is not
+        tables.recordCutoff(board, side, 0, Move.NONE, move(board, side, "a2a3"), 4, new int[0], 0);
+        tables.recordCutoff(board, side, 0, Move.NONE, Move.encode(1, 17, 0), 4, new int[0], 0);
+
+        MovePicker picker = new MovePicker(tables);
+        picker.init(board, side, move(board, side, "e1g1"), 0, Move.NONE, false);
+        List<Integer> picked = pickAll(picker);
+
+        Assertions.assertEquals(legalMoves(board, side), new HashSet<>(picked));
+        Assertions.assertEquals(picked.size(), new HashSet<>(picked).size(), "A move was picked twice");
+    }
+
+    @Test
+    @DisplayName("Stages Come In Order")
+    public void stageOrder() {
+        // White can take the queen with the pawn or the rook, or the knight with the rook
+        ChessBoard board = Fen.toGame("4k3/8/8/2q5/1P6/8/8/2R1n2K w - - 0 1").getBoard();
+        ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+        HistoryTables tables = new HistoryTables();
+        int killer = move(board, side, "h1h2");
+        tables.recordCutoff(board, side, 3, Move.NONE, killer, 4, new int[0], 0);
+        int hashMove = move(board, side, "c1c2");
+
+        MovePicker picker = new MovePicker(tables);
+        picker.init(board, side, hashMove, 3, Move.NONE, false);
+        List<Integer> picked = pickAll(picker);
+
+        Assertions.assertEquals(hashMove, picked.get(0), "Hash move is not first");
+        Assertions.assertEquals("b4c5", Move.toString(picked.get(1)), "Pawn takes queen is not the best capture");
+        Assertions.assertEquals("c1c5", Move.toString(picked.get(2)));
+        Assertions.assertEquals("c1e1", Move.toString(picked.get(3)));
+        Assertions.assertEquals(killer, picked.get(4), "Killer does not follow the captures");
+    }
+
+    @Test
+    @DisplayName("History Orders Quiet Moves")
+    public void historyOrder() {
+        ChessBoard board = new ChessGame().getBoard();
+        ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+        HistoryTables tables = new HistoryTables();
+        int knight = move(board, side, "g1f3");
+        int pawn = move(board, side, "d2d4");
+        tables.recordCutoff(board, side, 5, Move.NONE, knight, 3, new int[0], 0);
+        tables.recordCutoff(board, side, 5, Move.NONE, pawn, 6, new int[] {knight}, 1);
+
+        // At another ply the killers do not apply, so only history decides
+        MovePicker picker = new MovePicker(tables);
+        picker.init(board, side, Move.NONE, 0, Move.NONE, false);
+        List<Integer> picked = pickAll(picker);
+
+        Assertions.assertEquals(pawn, picked.get(0));
+        Assertions.assertEquals(20, picked.size());
+        Assertions.assertTrue(tables.history(side, knight) < 0, "Failed quiet move was not penalised");
+    }
+
+    @Test
+    @DisplayName("Illegal Hash Move Is Skipped")
+    public void illegalHashMove() {
+        ChessBoard board = new ChessGame().getBoard();
+        MovePicker picker = new MovePicker(new HistoryTables());
+        // e2e5 is not a legal move from the start position
+        picker.init(board, ChessGame.TeamColor.WHITE, Move.encode(12, 36, 0), 0, Move.NONE, false);
+
+        List<Integer> picked = pickAll(picker);
+        Assertions.assertEquals(20, picked.size());
+        Assertions.assertFalse(picked.contains(Move.encode(12, 36, 0)));
+    }
+
+    @Test
+    @DisplayName("Evasions When In Check")
+    public void evasions() {
+        ChessBoard board = Fen.toGame("4k3/8/8/8/8/8/3q4/4K3 w - - 0 1").getBoard();
+        MovePicker picker = new MovePicker(new HistoryTables());
+        picker.init(board, ChessGame.TeamColor.WHITE, Move.NONE, 0, Move.NONE, true);
+
+        List<Integer> picked = pickAll(picker);
+        Assertions.assertEquals("e1d2", Move.toString(picked.get(0)), "Capturing the checker is not first");
+        Assertions.assertEquals(legalMoves(board, ChessGame.TeamColor.WHITE), new HashSet<>(picked));
+    }
+}
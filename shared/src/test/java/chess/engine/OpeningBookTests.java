@@ -0,0 +1,144 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class OpeningBookTests {
+
+    @TempDir
+    Path directory;
+
+    private static ChessMove move(String text) {
+        return ChessMove.of(ChessPosition.of(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                ChessPosition.of(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), null);
+    }
+
+    private static ChessGame play(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String text : moves) {
+            game.makeMove(move(text));
+        }
+        return game;
+    }
+
+    private OpeningBook build(OpeningBookBuilder builder) throws IOException {
+        Path file = directory.resolve("book.bin");
+        int entries = builder.write(file);
+        Assertions.assertEquals(entries * 16L, Files.size(file));
+        return OpeningBook.open(file);
+    }
+
+    @Test
+    @DisplayName("Book Moves Are Weighted By Games")
+    public void weightedLookup() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        Assertions.assertTrue(builder.add(play("e2e4", "e7e5", "g1f3")));
+        Assertions.assertTrue(builder.add(play("e2e4", "c7c5")));
+        Assertions.assertTrue(builder.add(play("d2d4", "d7d5")));
+        OpeningBook book = build(builder);
+
+        List<OpeningBook.Entry> start = book.lookup(new ChessGame());
+        Assertions.assertEquals(2, start.size());
+        Assertions.assertEquals(new OpeningBook.Entry(move("e2e4"), 2), start.get(0));
+        Assertions.assertEquals(new OpeningBook.Entry(move("d2d4"), 1), start.get(1));
+
+        List<OpeningBook.Entry> afterE4 = book.lookup(play("e2e4"));
+        Assertions.assertEquals(2, afterE4.size());
+        Assertions.assertEquals(List.of(new OpeningBook.Entry(move("g1f3"), 1)),
+                book.lookup(play("e2e4", "e7e5")));
+        Assertions.assertTrue(book.lookup(play("a2a3")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Transpositions Share An Entry")
+    public void transposition() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.add(play("g1f3", "g8f6", "d2d4", "d7d5"));
+        builder.add(play("d2d4", "g8f6", "g1f3", "d7d5", "c2c4"));
+        OpeningBook book = build(builder);
+
+        // Both games reach the position after 1.d4 Nf6 2.Nf3
+        List<OpeningBook.Entry> entries = book.lookup(play("d2d4", "g8f6", "g1f3"));
+        Assertions.assertEquals(List.of(new OpeningBook.Entry(move("d7d5"), 2)), entries);
+    }
+
+    @Test
+    @DisplayName("Only The First Plies Are Kept")
+    public void maxPly() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder(2);
+        builder.add(play("e2e4", "e7e5", "g1f3", "b8c6"));
+        Assertions.assertEquals(2, builder.positions());
+        OpeningBook book = build(builder);
+
+        Assertions.assertEquals(2, book.size());
+        Assertions.assertTrue(book.lookup(play("e2e4", "e7e5")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Games Set Up By Hand Are Skipped")
+    public void handSetUp() throws Exception {
+        ChessGame game = Fen.toGame("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        game.makeMove(move("e2e4"));
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        Assertions.assertFalse(builder.add(game));
+        // A game nobody has moved in has no opening to add
+        Assertions.assertFalse(builder.add(new ChessGame()));
+        Assertions.assertEquals(0, builder.games());
+    }
+
+    @Test
+    @DisplayName("Move History Survives Serialization")
+    public void storedGame() throws Exception {
+        Gson gson = new Gson();
+        ChessGame stored = gson.fromJson(gson.toJson(play("e2e4", "e7e5")), ChessGame.class);
+        Assertions.assertEquals(List.of(move("e2e4"), move("e7e5")), stored.getMoveHistory());
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        Assertions.assertTrue(builder.add(stored));
+    }
+
+    @Test
+    @DisplayName("Pick Follows The Weights")
+    public void pick() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        for (int i = 0; i < 3; i++) {
+            builder.add(play("e2e4"));
+        }
+        builder.add(play("d2d4"));
+        OpeningBook book = build(builder);
+
+        Random random = new Random(1);
+        Map<ChessMove, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 4000; i++) {
+            picks.merge(book.pick(new ChessGame(), random), 1, Integer::sum);
+        }
+        Assertions.assertEquals(2, picks.size());
+        Assertions.assertTrue(picks.get(move("e2e4")) > 2 * picks.get(move("d2d4")));
+        Assertions.assertNull(book.pick(play("a2a3"), random));
+    }
+
+    @Test
+    @DisplayName("Rejects A File That Is Not A Book")
+    public void notABook() throws IOException {
+        Path file = directory.resolve("broken.bin");
+        Files.write(file, new byte[15]);
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
@@ -0,0 +1,108 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ParallelSearchTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("One Thread Matches The Single-Threaded Search")
+    public void oneThread() {
+        ChessGame game = Fen.toGame(KIWIPETE);
+        SearchResult serial = new Search(new TranspositionTable(4)).search(game, SearchLimits.depth(4));
+        SearchResult parallel = new ParallelSearch(new TranspositionTable(4))
+                .search(game, SearchLimits.depth(4), 1, null);
+
+        Assertions.assertEquals(serial.bestMove(), parallel.bestMove());
+        Assertions.assertEquals(serial.score(), parallel.score());
+        Assertions.assertEquals(serial.nodes(), parallel.nodes());
+    }
+
+    @Test
+    @DisplayName("Several Threads Find Mate")
+    public void findsMate() {
+        ChessGame game = Fen.toGame("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(4));
+
+        // Repeated, so the threads interleave differently each time
+        for (int run = 0; run < 5; run++) {
+            SearchResult result = search.search(game, SearchLimits.depth(5), 4, null);
+            Assertions.assertEquals(ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                    result.bestMove());
+            Assertions.assertEquals(1, result.mateIn());
+        }
+    }
+
+    @Test
+    @DisplayName("Several Threads Search A Deserialized Game")
+    public void deserializedGame() throws InvalidMoveException {
+        ChessGame played = Fen.toGame("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        // Shuffle the king so the game has a history to rebuild
+        played.makeMove(ChessMove.of(ChessPosition.of(1, 7), ChessPosition.of(1, 8), null));
+        played.makeMove(ChessMove.of(ChessPosition.of(8, 7), ChessPosition.of(8, 8), null));
+        played.makeMove(ChessMove.of(ChessPosition.of(1, 8), ChessPosition.of(1, 7), null));
+        played.makeMove(ChessMove.of(ChessPosition.of(8, 8), ChessPosition.of(8, 7), null));
+        Gson gson = new Gson();
+        String json = gson.toJson(played);
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(4));
+
+        // A fresh copy each run, so every run starts from unbuilt bitboards and repetition counts
+        for (int run = 0; run < 20; run++) {
+            ChessGame game = gson.fromJson(json, ChessGame.class);
+            SearchResult result = search.search(game, SearchLimits.depth(4), 4, null);
+            Assertions.assertEquals(ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                    result.bestMove());
+            Assertions.assertEquals(1, result.mateIn());
+            Assertions.assertEquals(played.zobristKey(), game.zobristKey());
+            Assertions.assertEquals(1, game.getHistory().count(played.zobristKey()));
+        }
+    }
+
+    @Test
+    @DisplayName("Time Limit Stops Every Thread")
+    public void timeLimit() {
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(4));
+        long start = System.nanoTime();
+        SearchResult result = search.search(new ChessGame(), SearchLimits.time(200), 3, null);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(millis < 3000, "Search took " + millis + " ms");
+    }
+
+    @Test
+    @DisplayName("Stop From Another Thread")
+    public void stop() throws InterruptedException {
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(4));
+        AtomicReference<SearchResult> result = new AtomicReference<>();
+        Thread thread = new Thread(() -> result.set(search.search(new ChessGame(), SearchLimits.depth(64), 3, null)));
+        thread.start();
+
+        Thread.sleep(200);
+        search.stop();
+        thread.join(5000);
+
+        Assertions.assertFalse(thread.isAlive(), "Search did not stop");
+        Assertions.assertNotNull(result.get().bestMove());
+        Assertions.assertTrue(result.get().nodes() > 0);
+    }
+
+    @Test
+    @DisplayName("Rejects Zero Threads")
+    public void zeroThreads() {
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> search.search(new ChessGame(), SearchLimits.depth(1), 0, null));
+    }
+}
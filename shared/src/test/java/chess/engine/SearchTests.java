@@ -0,0 +1,140 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        // Back rank mate: Ra8#
+        ChessGame game = Fen.toGame("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Finds Mate In Two")
+    public void mateInTwo() {
+        // Rook ladder: Ra7 then Rb8#
+        ChessGame game = Fen.toGame("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(5));
+
+        Assertions.assertEquals(2, result.mateIn());
+        Assertions.assertEquals(3, result.principalVariation().size());
+    }
+
+    @Test
+    @DisplayName("Sees Being Mated")
+    public void mated() {
+        // Black's only move Kg8 is answered by Rb8#
+        ChessGame game = Fen.toGame("7k/R7/8/8/8/8/8/1R4K1 b - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(-1, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Quiescence Sees The Recapture")
+    public void quiescence() {
+        // At depth 1 Qxd5 wins a pawn unless the search looks on to cxd5
+        ChessGame game = Fen.toGame("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(1));
+
+        Assertions.assertNotEquals(ChessPosition.of(5, 4), result.bestMove().getEndPosition());
+        Assertions.assertTrue(result.score() > 500, "Score " + result.score() + " does not keep the queen");
+    }
+
+    @Test
+    @DisplayName("Principal Variation Is Legal")
+    public void principalVariationIsLegal() throws InvalidMoveException {
+        ChessGame game = Fen.toGame("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+        Assertions.assertFalse(result.principalVariation().isEmpty());
+        Assertions.assertEquals(result.bestMove(), result.principalVariation().get(0));
+        for (ChessMove move : result.principalVariation()) {
+            game.makeMove(move);
+        }
+    }
+
+    @Test
+    @DisplayName("No Legal Moves")
+    public void noLegalMoves() {
+        SearchResult stalemate = new Search().search(Fen.toGame("k7/8/1Q6/8/8/8/8/7K b - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertNull(stalemate.bestMove());
+        Assertions.assertEquals(0, stalemate.score());
+
+        SearchResult checkmate = new Search().search(Fen.toGame("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertNull(checkmate.bestMove());
+        Assertions.assertEquals(-Search.MATE, checkmate.score());
+    }
+
+    @Test
+    @DisplayName("Node Limit Is Respected And Deterministic")
+    public void nodeLimit() {
+        ChessGame game = new ChessGame();
+        SearchResult first = new Search().search(game, SearchLimits.nodes(20_000));
+        SearchResult second = new Search().search(game, SearchLimits.nodes(20_000));
+
+        Assertions.assertTrue(first.nodes() <= 20_000, "Visited " + first.nodes() + " nodes");
+        Assertions.assertNotNull(first.bestMove());
+        Assertions.assertEquals(first.bestMove(), second.bestMove());
+        Assertions.assertEquals(first.score(), second.score());
+        Assertions.assertEquals(first.depth(), second.depth());
+        Assertions.assertEquals(first.nodes(), second.nodes());
+        Assertions.assertEquals(first.principalVariation(), second.principalVariation());
+    }
+
+    @Test
+    @DisplayName("Reports Each Iteration")
+    public void reportsIterations() {
+        List<Integer> depths = new ArrayList<>();
+        new Search().search(new ChessGame(), SearchLimits.depth(3), result -> depths.add(result.depth()));
+
+        Assertions.assertEquals(List.of(1, 2, 3), depths);
+    }
+
+    @Test
+    @DisplayName("Stop From Another Thread")
+    public void stop() throws InterruptedException {
+        Search search = new Search();
+        AtomicReference<SearchResult> result = new AtomicReference<>();
+        Thread thread = new Thread(() -> result.set(search.search(new ChessGame(), SearchLimits.depth(64))));
+        thread.start();
+
+        Thread.sleep(200);
+        search.stop();
+        thread.join(5000);
+
+        Assertions.assertFalse(thread.isAlive(), "Search did not stop");
+        Assertions.assertNotNull(result.get().bestMove());
+    }
+
+    @Test
+    @DisplayName("Game Is Not Modified")
+    public void gameIsNotModified() {
+        ChessGame game = new ChessGame();
+        String before = Fen.fromGame(game);
+        new Search().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(before, Fen.fromGame(game));
+    }
+}
@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.LegalMoveGenerator;
+import chess.Move;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StaticExchangeTests {
+
+    private static int move(ChessBoard board, ChessGame.TeamColor side, String text) {
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generateMoves(board, side, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.toString(moves.get(i)).equals(text)) {
+                return moves.get(i);
+            }
+        }
+        throw new IllegalArgumentException("No legal move " + text);
+    }
+
+    private static int see(String fen, String move) {
+        ChessGame game = Fen.toGame(fen);
+        ChessBoard board = game.getBoard();
+        return StaticExchange.evaluate(board, move(board, game.getTeamTurn(), move));
+    }
+
+    @Test
+    @DisplayName("Undefended Piece Is Won")
+    public void undefended() {
+        Assertions.assertEquals(100, see("4k3/8/8/3p4/8/8/8/3QK3 w - - 0 1", "d1d5"));
+    }
+
+    @Test
+    @DisplayName("Queen Takes Defended Pawn")
+    public void defendedByPawn() {
+        Assertions.assertEquals(100 - 900, see("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1", "d1d5"));
+    }
+
+    @Test
+    @DisplayName("Defender Declines A Losing Recapture")
+    public void declinedRecapture() {
+        // Pawn takes knight; the queen would lose itself to the second pawn by recapturing
+        Assertions.assertEquals(320, see("4k3/8/2q5/3n4/2P1P3/8/8/4K3 w - - 0 1", "c4d5"));
+    }
+
+    @Test
+    @DisplayName("Slider Behind The Capturer Recaptures")
+    public void xray() {
+        // Rxd5 Rxd5 Rxd5: the rook on d1 only attacks d5 once the rook on d2 has moved
+        Assertions.assertEquals(100, see("3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2d5"));
+    }
+
+    @Test
+    @DisplayName("King Cannot Recapture A Defended Piece")
+    public void kingRecapture() {
+        // The king may take the rook on e7 only if nothing defends it
+        Assertions.assertEquals(100, see("8/4pk2/8/8/8/8/4R3/4RK2 w - - 0 1", "e2e7"));
+        Assertions.assertEquals(100 - 500, see("8/4pk2/8/8/8/8/4R3/5K2 w - - 0 1", "e2e7"));
+    }
+
+    @Test
+    @DisplayName("En Passant Wins A Pawn")
+    public void enPassant() {
+        Assertions.assertEquals(100, see("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6"));
+    }
+
+    @Test
+    @DisplayName("Promotion Counts The New Piece")
+    public void promotion() {
+        Assertions.assertEquals(800, see("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", "b7b8q"));
+        // Recaptured at once: the pawn is lost
+        Assertions.assertEquals(-100, see("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1", "a7a8q"));
+    }
+
+    @Test
+    @DisplayName("Threshold Test Agrees With Full Exchange")
+    public void thresholdAgrees() {
+        String[] positions = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 0 1",
+                "3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1",
+                "1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1",
+        };
+        int[] thresholds = {-1000, -500, -100, -1, 0, 1, 100, 320, 500, 900};
+        for (String fen : positions) {
+            ChessGame game = Fen.toGame(fen);
+            ChessBoard board = game.getBoard();
+            MoveList moves = new MoveList();
+            LegalMoveGenerator.generateMoves(board, game.getTeamTurn(), moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                int value = StaticExchange.evaluate(board, move);
+                for (int threshold : thresholds) {
+                    Assertions.assertEquals(value >= threshold, StaticExchange.isAtLeast(board, move, threshold),
+                            fen + " " + Move.toString(move) + " >= " + threshold);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TranspositionTableTests {
+
+    private static final int MOVE = Move.encode(12, 28, Move.DOUBLE_PUSH);
+
+    @Test
+    @DisplayName("Store And Probe")
+    public void storeAndProbe() {
+        for (boolean offHeap : new boolean[] {false, true}) {
+            TranspositionTable table = new TranspositionTable(1, offHeap);
+            long key = 0x9D39247E33776D41L;
+            Assertions.assertEquals(0, table.probe(key));
+
+            table.store(key, MOVE, -137, 7, TranspositionTable.BOUND_LOWER, 3);
+            long entry = table.probe(key);
+            Assertions.assertEquals(MOVE, TranspositionTable.move(entry));
+            Assertions.assertEquals(-137, TranspositionTable.score(entry, 3));
+            Assertions.assertEquals(7, TranspositionTable.depth(entry));
+            Assertions.assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+            Assertions.assertEquals(0, table.probe(key ^ 1), "Probe matched a different key");
+
+            table.clear();
+            Assertions.assertEquals(0, table.probe(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Mate Scores Are Stored Relative To The Position")
+    public void mateScores() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42;
+
+        // Mate in 5 plies from a node at ply 4 is mate in 9 from the root
+        table.store(key, MOVE, Search.MATE - 9, 5, TranspositionTable.BOUND_EXACT, 4);
+        long entry = table.probe(key);
+        Assertions.assertEquals(Search.MATE - 9, TranspositionTable.score(entry, 4));
+        // Reached at ply 2 through a transposition, the same mate is 7 plies from the root
+        Assertions.assertEquals(Search.MATE - 7, TranspositionTable.score(entry, 2));
+
+        table.store(key, MOVE, -Search.MATE + 6, 5, TranspositionTable.BOUND_EXACT, 6);
+        Assertions.assertEquals(-Search.MATE + 2, TranspositionTable.score(table.probe(key), 2));
+    }
+
+    @Test
+    @DisplayName("Deep Entries Survive Shallow Ones")
+    public void replacement() {
+        // Keys 0 and 1 share a bucket: the index is the high bits of key * buckets
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(0, MOVE, 10, 12, TranspositionTable.BOUND_EXACT, 0);
+        table.store(1, MOVE, 20, 2, TranspositionTable.BOUND_EXACT, 0);
+        table.store(2, MOVE, 30, 1, TranspositionTable.BOUND_EXACT, 0);
+
+        Assertions.assertEquals(12, TranspositionTable.depth(table.probe(0)), "Deep entry was evicted");
+        Assertions.assertEquals(0, table.probe(1), "Always-replace slot kept the older entry");
+        Assertions.assertEquals(1, TranspositionTable.depth(table.probe(2)));
+
+        // An entry from an earlier search gives way regardless of depth
+        table.newSearch();
+        table.store(3, MOVE, 40, 1, TranspositionTable.BOUND_EXACT, 0);
+        Assertions.assertEquals(0, table.probe(0));
+        Assertions.assertNotEquals(0, table.probe(3));
+    }
+
+    @Test
+    @DisplayName("Concurrent Writers Never Produce Torn Entries")
+    public void concurrentWriters() throws InterruptedException {
+        // A tiny table so threads collide in the same buckets constantly
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicInteger corrupt = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong(4096);
+                    // Every field is derived from the key, so any mix of two writes is detectable
+                    int depth = (int) (key & 0xFF);
+                    table.store(key, (int) (key & 0x7FFF), (int) key, depth, TranspositionTable.BOUND_EXACT, 0);
+                    long probed = random.nextLong(4096);
+                    long entry = table.probe(probed);
+                    if (entry != 0 && (TranspositionTable.move(entry) != probed
+                            || TranspositionTable.score(entry, 0) != probed
+                            || TranspositionTable.depth(entry) != (probed & 0xFF))) {
+                        corrupt.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, corrupt.get());
+    }
+
+    @Test
+    @DisplayName("Shared Table Speeds Up A Repeated Search")
+    public void reuseAcrossSearches() {
+        ChessGame game = Fen.toGame("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        TranspositionTable table = new TranspositionTable(8);
+        SearchResult first = new Search(table).search(game, SearchLimits.depth(4));
+        SearchResult second = new Search(table).search(game, SearchLimits.depth(4));
+
+        Assertions.assertTrue(second.nodes() < first.nodes(),
+                "Second search visited " + second.nodes() + " nodes, first " + first.nodes());
+        Assertions.assertEquals(first.score(), second.score());
+    }
+
+    @Test
+    @DisplayName("Rejects Invalid Sizes")
+    public void invalidSizes() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(1L << 20));
+    }
+}
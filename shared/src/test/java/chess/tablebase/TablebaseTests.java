@@ -0,0 +1,180 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Fen;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class TablebaseTests {
+
+    @TempDir
+    static Path directory;
+
+    private static TablebaseGenerator generator;
+    private static Tablebase tablebase;
+
+    // KBNK takes several seconds to build, so only its own test builds it
+    @BeforeAll
+    public static void generate() throws IOException {
+        generator = new TablebaseGenerator(ForkJoinPool.commonPool());
+        generator.write(Material.KQK, directory);
+        generator.write(Material.KRK, directory);
+        generator.write(Material.KPK, directory);
+        tablebase = Tablebase.open(directory);
+    }
+
+    private static TablebaseResult probe(String fen) {
+        ChessGame game = Fen.toGame(fen);
+        return tablebase.probe(game.getBoard(), game.getTeamTurn());
+    }
+
+    private static int longestMate(byte[] table) {
+        int longest = 0;
+        for (byte value : table) {
+            if ((value & 0xFF) != Tablebase.ILLEGAL) {
+                longest = Math.max(longest, (value & 0xFF) - 1);
+            }
+        }
+        return longest;
+    }
+
+    @Test
+    @DisplayName("Longest Mates Match Known Values")
+    public void longestMates() {
+        // Mate in 10 with the queen and in 16 with the rook, counted with the losing side to move
+        Assertions.assertEquals(20, longestMate(generator.generate(Material.KQK)));
+        Assertions.assertEquals(32, longestMate(generator.generate(Material.KRK)));
+    }
+
+    @Test
+    @DisplayName("Mate In One And Mated")
+    public void mates() {
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1),
+                probe("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1"));
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.LOSS, 0),
+                probe("1Q5k/8/6K1/8/8/8/8/8 b - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Stalemate And Capture Are Draws")
+    public void draws() {
+        Assertions.assertEquals(TablebaseResult.DRAW, probe("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"));
+        // The lone king takes the undefended rook
+        Assertions.assertEquals(TablebaseResult.DRAW, probe("8/8/8/8/8/8/1R6/k2K4 b - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("King And Pawn Opposition")
+    public void opposition() {
+        // Whoever has to move gives up the opposition
+        Assertions.assertEquals(TablebaseResult.Outcome.DRAW, probe("8/8/8/4k3/8/4K3/4P3/8 w - - 0 1").outcome());
+        Assertions.assertEquals(TablebaseResult.Outcome.LOSS, probe("8/8/8/4k3/8/4K3/4P3/8 b - - 0 1").outcome());
+        // With the king on the sixth rank in front of its pawn, it does not matter
+        Assertions.assertEquals(TablebaseResult.Outcome.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1").outcome());
+    }
+
+    @Test
+    @DisplayName("Black Strong Side")
+    public void blackStrongSide() {
+        // The mate in one above with colors and ranks swapped
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1),
+                probe("1q6/8/8/8/8/6k1/8/7K b - - 0 1"));
+        Assertions.assertEquals(probe("8/8/8/4k3/8/4K3/4P3/8 b - - 0 1"),
+                probe("8/4p3/4k3/8/4K3/8/8/8 w - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Symmetric Positions Agree")
+    public void symmetry() {
+        for (int strongKing = 0; strongKing < 64; strongKing += 5) {
+            for (int weakKing = 0; weakKing < 64; weakKing += 3) {
+                for (int rook = 0; rook < 64; rook += 7) {
+                    TablebaseResult result = probe(strongKing, weakKing, rook);
+                    // Mirror the files, the ranks, and the diagonal
+                    Assertions.assertEquals(result, probe(strongKing ^ 7, weakKing ^ 7, rook ^ 7));
+                    Assertions.assertEquals(result, probe(strongKing ^ 56, weakKing ^ 56, rook ^ 56));
+                    Assertions.assertEquals(result, probe(transpose(strongKing), transpose(weakKing),
+                            transpose(rook)));
+                }
+            }
+        }
+    }
+
+    private static int transpose(int square) {
+        return (square & 7) * 8 + (square >>> 3);
+    }
+
+    private static TablebaseResult probe(int strongKing, int weakKing, int rook) {
+        if (strongKing == weakKing || strongKing == rook || weakKing == rook) {
+            return null;
+        }
+        ChessBoard board = new ChessBoard();
+        board.setCastlingRights(0);
+        board.setPiece(strongKing, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.setPiece(weakKing, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.setPiece(rook, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        return tablebase.probe(board, ChessGame.TeamColor.BLACK);
+    }
+
+    @Test
+    @DisplayName("Uncovered Positions Are Not Probed")
+    public void notCovered() {
+        Assertions.assertNull(probe(Fen.START_POSITION));
+        Assertions.assertNull(probe("q6k/8/6K1/8/8/8/8/Q7 w - - 0 1"));
+        // Castling is not in the tables
+        Assertions.assertNull(probe("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1"));
+        Assertions.assertFalse(tablebase.contains(Material.KBNK));
+        Assertions.assertNull(probe("4k3/8/8/8/8/8/8/1BN1K3 w - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Search Scores Solved Positions Exactly")
+    public void search() {
+        ChessGame game = Fen.toGame("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        TablebaseResult solved = tablebase.probe(game.getBoard(), game.getTeamTurn());
+        Assertions.assertEquals(TablebaseResult.Outcome.WIN, solved.outcome());
+
+        Search search = new Search();
+        search.setTablebase(tablebase);
+        SearchResult result = search.search(game, SearchLimits.depth(1));
+        Assertions.assertEquals((solved.pliesToMate() + 1) / 2, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Bishop And Knight Mate")
+    public void bishopAndKnight(@TempDir Path kbnk) throws IOException {
+        byte[] table = generator.generate(Material.KBNK);
+        // Mate in 33, the longest of the four-piece endings
+        Assertions.assertEquals(66, longestMate(table));
+
+        generator.write(Material.KBNK, kbnk);
+        Tablebase withKbnk = Tablebase.open(kbnk);
+        // Mate only comes in a corner the bishop covers, so a king in the other one is driven across the board
+        ChessGame wrong = Fen.toGame("k7/8/1K6/8/8/8/8/4BN2 b - - 0 1");
+        ChessGame right = Fen.toGame("k7/8/1K6/8/8/8/8/3B1N2 b - - 0 1");
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.LOSS, 46),
+                withKbnk.probe(wrong.getBoard(), wrong.getTeamTurn()));
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.LOSS, 12),
+                withKbnk.probe(right.getBoard(), right.getTeamTurn()));
+    }
+
+    @Test
+    @DisplayName("Rejects A File That Is Not A Table")
+    public void notATable(@TempDir Path other) throws IOException {
+        Files.write(other.resolve(Material.KQK.fileName()), new byte[100]);
+        Assertions.assertThrows(IOException.class, () -> Tablebase.open(other));
+    }
+}
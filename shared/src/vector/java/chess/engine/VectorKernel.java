@@ -0,0 +1,55 @@
+package chess.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link BatchEvaluator} kernel for the Vector API. A bitboard is cut
+ * into chunks as wide as a vector, and each chunk's bits become a lane mask
+ * that adds the weights of the occupied squares in one step. Every chunk of
+ * a piece that is on the board is added, empty or not, since a fixed count of
+ * masked adds runs faster than branching on the bits. The lanes are only
+ * summed once per board.
+ * <p>
+ * Compiled only under the {@code vector} profile. Only {@link BatchEvaluator}
+ * may load this class, by name, after checking that
+ * {@code jdk.incubator.vector} is present.
+ */
+final class VectorKernel implements BatchEvaluator.Kernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private final int[] weights;
+    private final int[] phases;
+    private final int maxPhase;
+
+    VectorKernel(int[] weights, int[] phases, int maxPhase) {
+        this.weights = weights;
+        this.phases = phases;
+        this.maxPhase = maxPhase;
+    }
+
+    @Override
+    public void evaluate(long[] boards, int count, int[] scores) {
+        for (int board = 0; board < count; board++) {
+            int offset = board * BatchEvaluator.LONGS_PER_BOARD;
+            IntVector sum = IntVector.zero(SPECIES);
+            int phase = 0;
+            for (int pieceIndex = 0; pieceIndex < BatchEvaluator.LONGS_PER_BOARD; pieceIndex++) {
+                long pieces = boards[offset + pieceIndex];
+                if (pieces == 0) {
+                    continue;
+                }
+                phase += Long.bitCount(pieces) * phases[pieceIndex];
+                for (int square = 0; square < 64; square += LANES) {
+                    // fromLong ignores the bits past the last lane
+                    sum = sum.add(IntVector.fromArray(SPECIES, weights, pieceIndex * 64 + square),
+                            VectorMask.fromLong(SPECIES, pieces >>> square));
+                }
+            }
+            scores[board] = BatchEvaluator.taper(sum.reduceLanes(VectorOperators.ADD), phase, maxPhase);
+        }
+    }
+}